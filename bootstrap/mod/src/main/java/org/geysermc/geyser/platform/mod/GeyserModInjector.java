@@ -99,6 +99,8 @@ public class GeyserModInjector extends GeyserInjector {
                         if (bootstrap.getGeyserConfig().isDisableCompression()) {
                             ch.pipeline().addAfter(baseName, "geyser-compression-disabler", new GeyserModCompressionDisabler());
                         }
+
+                        matchFraming(ch);
                     }
                 })
                 // Set to MAX_PRIORITY as MultithreadEventLoopGroup#newDefaultThreadFactory which DefaultEventLoopGroup implements does by default
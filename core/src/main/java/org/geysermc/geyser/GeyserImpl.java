@@ -76,13 +76,14 @@ import org.geysermc.geyser.extension.GeyserExtensionManager;
 import org.geysermc.geyser.impl.MinecraftVersionImpl;
 import org.geysermc.geyser.level.BedrockDimension;
 import org.geysermc.geyser.level.WorldManager;
+import org.geysermc.geyser.level.chunk.SharedChunkCache;
 import org.geysermc.geyser.network.GameProtocol;
+import org.geysermc.geyser.network.LoginPacketCache;
 import org.geysermc.geyser.network.netty.GeyserServer;
 import org.geysermc.geyser.registry.BlockRegistries;
 import org.geysermc.geyser.registry.Registries;
 import org.geysermc.geyser.registry.loader.ResourcePackLoader;
 import org.geysermc.geyser.registry.provider.ProviderSupplier;
-import org.geysermc.geyser.scoreboard.ScoreboardUpdater;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.session.PendingMicrosoftAuthentication;
 import org.geysermc.geyser.session.SessionDisconnectListener;
@@ -99,6 +100,7 @@ import org.geysermc.geyser.util.CooldownUtils;
 import org.geysermc.geyser.util.Metrics;
 import org.geysermc.geyser.util.NewsHandler;
 import org.geysermc.geyser.util.VersionCheckUtils;
+import org.geysermc.geyser.util.VirtualThreads;
 import org.geysermc.geyser.util.WebUtils;
 
 import java.io.File;
@@ -120,6 +122,7 @@ import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
@@ -166,6 +169,13 @@ public class GeyserImpl implements GeyserApi, EventRegistrar {
     private ScheduledExecutorService scheduledThread;
 
     private GeyserServer geyserServer;
+    private SharedChunkCache sharedChunkCache;
+    private LoginPacketCache loginPacketCache;
+    private ExecutorService chunkTranslationExecutor;
+    /**
+     * Runs tasks that wait on the network, such as skin downloads.
+     */
+    private ExecutorService blockingExecutor;
     private final PlatformType platformType;
     private final GeyserBootstrap bootstrap;
 
@@ -298,7 +308,18 @@ public class GeyserImpl implements GeyserApi, EventRegistrar {
         GeyserLogger logger = bootstrap.getGeyserLogger();
         GeyserConfiguration config = bootstrap.getGeyserConfig();
 
-        ScoreboardUpdater.init();
+        this.sharedChunkCache = new SharedChunkCache(config.getSharedChunkCacheSize());
+        this.loginPacketCache = new LoginPacketCache();
+        int chunkTranslationThreads = config.getChunkTranslationThreads();
+        if (chunkTranslationThreads < 0) {
+            chunkTranslationThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        if (chunkTranslationThreads > 0) {
+            this.chunkTranslationExecutor = Executors.newFixedThreadPool(chunkTranslationThreads, new DefaultThreadFactory("Geyser Chunk Translation Thread", true));
+        } else {
+            this.chunkTranslationExecutor = null;
+        }
+        this.blockingExecutor = VirtualThreads.newBlockingExecutor(config.isVirtualThreads(), logger);
 
         SkinProvider.registerCacheImageTask(this);
 
@@ -430,6 +451,9 @@ public class GeyserImpl implements GeyserApi, EventRegistrar {
         BedrockDimension.changeBedrockNetherId(config.isAboveBedrockNetherBuilding()); // Apply End dimension ID workaround to Nether
 
         Integer bedrockThreadCount = Integer.getInteger("Geyser.BedrockNetworkThreads");
+        if (config.getListenerThreads() > 0) {
+            bedrockThreadCount = config.getListenerThreads();
+        }
         if (bedrockThreadCount == null) {
             // Copy the code from Netty's default thread count fallback
             bedrockThreadCount = Math.max(1, SystemPropertyUtil.getInt("io.netty.eventLoopThreads", NettyRuntime.availableProcessors() * 2));
@@ -667,6 +691,11 @@ public class GeyserImpl implements GeyserApi, EventRegistrar {
         runIfNonNull(skinUploader, FloodgateSkinUploader::close);
         runIfNonNull(newsHandler, NewsHandler::shutdown);
         runIfNonNull(erosionUnixListener, UnixSocketClientListener::close);
+        runIfNonNull(sharedChunkCache, SharedChunkCache::clear);
+        runIfNonNull(loginPacketCache, LoginPacketCache::clear);
+        runIfNonNull(chunkTranslationExecutor, ExecutorService::shutdown);
+        runIfNonNull(blockingExecutor, ExecutorService::shutdown);
+        VirtualThreads.shutdown();
 
         ResourcePackLoader.clear();
 
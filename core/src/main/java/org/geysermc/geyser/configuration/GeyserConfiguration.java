@@ -30,7 +30,7 @@ import org.geysermc.geyser.GeyserLogger;
 import org.geysermc.geyser.api.network.AuthType;
 import org.geysermc.geyser.api.network.BedrockListener;
 import org.geysermc.geyser.api.network.RemoteServer;
-import org.geysermc.geyser.network.CIDRMatcher;
+import org.geysermc.geyser.network.CIDRTrie;
 import org.geysermc.geyser.network.GameProtocol;
 import org.geysermc.geyser.text.GeyserLocale;
 
@@ -130,14 +130,20 @@ public interface GeyserConfiguration {
 
         int getCompressionLevel();
 
+        int getCompressionThreshold();
+
+        boolean isAdaptiveCompression();
+
+        boolean isSnappyForLanClients();
+
         boolean isEnableProxyProtocol();
 
         List<String> getProxyProtocolWhitelistedIPs();
 
         /**
-         * @return Unmodifiable list of {@link CIDRMatcher}s from {@link #getProxyProtocolWhitelistedIPs()}
+         * @return a {@link CIDRTrie} of the ranges from {@link #getProxyProtocolWhitelistedIPs()}
          */
-        List<CIDRMatcher> getWhitelistedIPsMatchers();
+        CIDRTrie getWhitelistedIPsMatcher();
     }
 
     interface IRemoteConfiguration extends RemoteServer {
@@ -179,6 +185,44 @@ public interface GeyserConfiguration {
 
     boolean isDisableCompression();
 
+    boolean isEnableClientBlobCache();
+
+    boolean isUseSubChunkRequests();
+
+    int getSharedChunkCacheSize();
+
+    int getChunkTranslationThreads();
+
+    int getChunkCacheMemoryBudget();
+
+    int getUpstreamSendBudget();
+
+    int getRealTimeTrafficShare();
+
+    int getListenerCount();
+
+    int getListenerThreads();
+
+    int getListenerReceiveBufferSize();
+
+    int getListenerSendBufferSize();
+
+    int getListenerBusyPoll();
+
+    boolean isListenerUdpGro();
+
+    boolean isListenerThreadAffinity();
+
+    int getRateLimitIpv4Prefix();
+
+    int getRateLimitIpv6Prefix();
+
+    boolean isTickPhaseStagger();
+
+    boolean isSessionThreadAffinity();
+
+    boolean isVirtualThreads();
+
     int getConfigVersion();
 
     static void checkGeyserConfiguration(GeyserConfiguration geyserConfig, GeyserLogger geyserLogger) {
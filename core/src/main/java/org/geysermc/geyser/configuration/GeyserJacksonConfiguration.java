@@ -37,7 +37,7 @@ import lombok.Setter;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.api.network.AuthType;
-import org.geysermc.geyser.network.CIDRMatcher;
+import org.geysermc.geyser.network.CIDRTrie;
 import org.geysermc.geyser.text.AsteriskSerializer;
 import org.geysermc.geyser.text.GeyserLocale;
 import org.geysermc.geyser.util.WebUtils;
@@ -48,7 +48,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Getter
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -218,6 +217,21 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
             return Math.max(-1, Math.min(compressionLevel, 9));
         }
 
+        @JsonProperty("compression-threshold")
+        private int compressionThreshold = 512;
+
+        public int getCompressionThreshold() {
+            return Math.max(0, compressionThreshold);
+        }
+
+        @Getter
+        @JsonProperty("adaptive-compression")
+        private boolean adaptiveCompression = true;
+
+        @Getter
+        @JsonProperty("snappy-for-lan-clients")
+        private boolean snappyForLanClients = false;
+
         @Getter
         @JsonProperty("enable-proxy-protocol")
         private boolean enableProxyProtocol = false;
@@ -227,14 +241,19 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
         private List<String> proxyProtocolWhitelistedIPs = Collections.emptyList();
 
         @JsonIgnore
-        private List<CIDRMatcher> whitelistedIPsMatchers = null;
+        private volatile CIDRTrie whitelistedIPsMatcher = null;
 
         @Override
-        public List<CIDRMatcher> getWhitelistedIPsMatchers() {
+        public CIDRTrie getWhitelistedIPsMatcher() {
             // Effective Java, Third Edition; Item 83: Use lazy initialization judiciously
-            List<CIDRMatcher> matchers = this.whitelistedIPsMatchers;
-            if (matchers == null) {
+            CIDRTrie matcher = this.whitelistedIPsMatcher;
+            if (matcher == null) {
                 synchronized (this) {
+                    matcher = this.whitelistedIPsMatcher;
+                    if (matcher != null) {
+                        return matcher;
+                    }
+
                     // Check if proxyProtocolWhitelistedIPs contains URLs we need to fetch and parse by line
                     List<String> whitelistedCIDRs = new ArrayList<>();
                     for (String ip: proxyProtocolWhitelistedIPs) {
@@ -246,12 +265,10 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
                         WebUtils.getLineStream(ip).forEach(whitelistedCIDRs::add);
                     }
 
-                    this.whitelistedIPsMatchers = matchers = whitelistedCIDRs.stream()
-                            .map(CIDRMatcher::new)
-                            .collect(Collectors.toList());
+                    this.whitelistedIPsMatcher = matcher = CIDRTrie.compile(whitelistedCIDRs);
                 }
             }
-            return Collections.unmodifiableList(matchers);
+            return matcher;
         }
     }
 
@@ -338,6 +355,75 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
     @JsonProperty("disable-compression")
     private boolean isDisableCompression = true;
 
+    @JsonProperty("enable-client-blob-cache")
+    private boolean enableClientBlobCache = true;
+
+    @JsonProperty("use-sub-chunk-requests")
+    private boolean useSubChunkRequests = false;
+
+    @JsonProperty("shared-chunk-cache-size")
+    private int sharedChunkCacheSize = 32;
+
+    @JsonProperty("chunk-translation-threads")
+    private int chunkTranslationThreads = -1;
+
+    @JsonProperty("chunk-cache-memory-budget")
+    private int chunkCacheMemoryBudget = 0;
+
+    @JsonProperty("upstream-send-budget")
+    private int upstreamSendBudget = 0;
+
+    @JsonProperty("real-time-traffic-share")
+    private int realTimeTrafficShare = 20;
+
+    public int getRealTimeTrafficShare() {
+        return Math.max(0, Math.min(realTimeTrafficShare, 90));
+    }
+
+    @JsonProperty("listener-count")
+    private int listenerCount = -1;
+
+    @JsonProperty("listener-threads")
+    private int listenerThreads = -1;
+
+    @JsonProperty("listener-receive-buffer-size")
+    private int listenerReceiveBufferSize = 0;
+
+    @JsonProperty("listener-send-buffer-size")
+    private int listenerSendBufferSize = 0;
+
+    @JsonProperty("listener-busy-poll")
+    private int listenerBusyPoll = 0;
+
+    @JsonProperty("listener-udp-gro")
+    private boolean listenerUdpGro = false;
+
+    @JsonProperty("listener-thread-affinity")
+    private boolean listenerThreadAffinity = true;
+
+    @JsonProperty("rate-limit-ipv4-prefix")
+    private int rateLimitIpv4Prefix = 32;
+
+    public int getRateLimitIpv4Prefix() {
+        return Math.max(8, Math.min(rateLimitIpv4Prefix, 32));
+    }
+
+    @JsonProperty("rate-limit-ipv6-prefix")
+    private int rateLimitIpv6Prefix = 128;
+
+    public int getRateLimitIpv6Prefix() {
+        return Math.max(32, Math.min(rateLimitIpv6Prefix, 128));
+    }
+
+    @JsonProperty("tick-phase-stagger")
+    private boolean tickPhaseStagger = true;
+
+    @JsonProperty("session-thread-affinity")
+    private boolean sessionThreadAffinity = false;
+
+    @JsonProperty("virtual-threads")
+    private boolean virtualThreads = false;
+
     @JsonProperty("config-version")
     private int configVersion = 0;
 
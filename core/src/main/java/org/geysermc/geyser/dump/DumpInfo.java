@@ -41,11 +41,17 @@ import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.api.GeyserApi;
 import org.geysermc.geyser.api.extension.Extension;
 import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.level.chunk.SharedChunkCache;
 import org.geysermc.geyser.network.GameProtocol;
+import org.geysermc.geyser.network.compression.CompressionStatistics;
+import org.geysermc.geyser.network.netty.handler.ListenerStatisticsHandler;
 import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.session.SessionHandoff;
+import org.geysermc.geyser.session.SessionTicker;
 import org.geysermc.geyser.text.AsteriskSerializer;
 import org.geysermc.geyser.util.CpuUtils;
 import org.geysermc.geyser.util.FileUtils;
+import org.geysermc.geyser.util.VirtualThreads;
 import org.geysermc.geyser.util.WebUtils;
 
 import java.io.File;
@@ -74,8 +80,18 @@ public class DumpInfo {
     private final Floodgate floodgate;
     private final Object2IntMap<DeviceOs> userPlatforms;
     private final int connectionAttempts;
+    private final List<ListenerStatisticsHandler.ListenerStatistics> listenerStatistics;
+    private final RateLimitInfo rateLimitInfo;
     private final HashInfo hashInfo;
     private final RamInfo ramInfo;
+    private final ChunkCacheInfo chunkCacheInfo;
+    private final BlobCacheInfo blobCacheInfo;
+    private final SharedChunkCacheInfo sharedChunkCacheInfo;
+    private final Map<String, CompressionStatistics.Snapshot> compressionInfo;
+    private final UpstreamBatchInfo upstreamBatchInfo;
+    private final TickInfo tickInfo;
+    private final Map<String, Long> threadHandoffs;
+    private final VirtualThreadInfo virtualThreadInfo;
     private LogsInfo logsInfo;
     private final BootstrapDumpInfo bootstrapInfo;
     private final FlagsInfo flagsInfo;
@@ -120,15 +136,58 @@ public class DumpInfo {
         }
 
         this.userPlatforms = new Object2IntOpenHashMap<>();
+        int cachedChunks = 0;
+        long chunkCacheMemory = 0;
+        long evictedChunks = 0;
+        long cachedBlobs = 0;
+        long missedBlobs = 0;
+        long savedBlobBytes = 0;
+        long batchesPerSecond = 0;
+        long flushedBatches = 0;
+        long flushedPackets = 0;
         for (GeyserSession session : geyser.getSessionManager().getAllSessions()) {
             DeviceOs device = session.getClientData().getDeviceOs();
             userPlatforms.put(device, userPlatforms.getOrDefault(device, 0) + 1);
+
+            cachedChunks += session.getChunkCache().size();
+            chunkCacheMemory += session.getChunkCache().getMemoryUsage();
+            evictedChunks += session.getChunkCache().getEvictedChunks();
+
+            cachedBlobs += session.getChunkBlobCache().getCachedBlobs();
+            missedBlobs += session.getChunkBlobCache().getMissedBlobs();
+            savedBlobBytes += session.getChunkBlobCache().getSavedBytes();
+
+            batchesPerSecond += session.getUpstream().getBatchesPerSecond();
+            flushedBatches += session.getUpstream().getFlushedBatches();
+            flushedPackets += session.getUpstream().getFlushedPackets();
+        }
+        this.chunkCacheInfo = new ChunkCacheInfo(cachedChunks, chunkCacheMemory / MEGABYTE, evictedChunks);
+        this.blobCacheInfo = new BlobCacheInfo(cachedBlobs, missedBlobs, savedBlobBytes / MEGABYTE);
+        SharedChunkCache sharedChunkCache = geyser.getSharedChunkCache();
+        if (sharedChunkCache != null && sharedChunkCache.isEnabled()) {
+            this.sharedChunkCacheInfo = new SharedChunkCacheInfo(sharedChunkCache.size(), sharedChunkCache.hitCount(), sharedChunkCache.missCount());
+        } else {
+            this.sharedChunkCacheInfo = null;
         }
+        this.compressionInfo = CompressionStatistics.snapshot();
+        this.upstreamBatchInfo = new UpstreamBatchInfo(batchesPerSecond, flushedBatches == 0 ? 0 : (double) flushedPackets / flushedBatches);
+        this.tickInfo = new TickInfo(SessionTicker.overruns(), SessionTicker.durations());
+        this.threadHandoffs = SessionHandoff.snapshot();
+        this.virtualThreadInfo = new VirtualThreadInfo(VirtualThreads.isActive(), VirtualThreads.pinned(), VirtualThreads.pinnedMillis());
 
         if (geyser.getGeyserServer() != null) {
             this.connectionAttempts = geyser.getGeyserServer().getConnectionAttempts();
+            this.listenerStatistics = geyser.getGeyserServer().getListenerStatistics();
+            List<Long> rejections = geyser.getGeyserServer().getRateLimitRejections();
+            long rejectedPackets = 0;
+            for (long count : rejections) {
+                rejectedPackets += count;
+            }
+            this.rateLimitInfo = new RateLimitInfo(rejectedPackets, rejections.size(), List.copyOf(rejections.subList(0, Math.min(10, rejections.size()))));
         } else {
             this.connectionAttempts = 0; // Fallback if Geyser failed to fully startup
+            this.listenerStatistics = List.of();
+            this.rateLimitInfo = new RateLimitInfo(0, 0, List.of());
         }
 
         this.bootstrapInfo = geyser.getBootstrap().getDumpInfo();
@@ -270,6 +329,49 @@ public class DumpInfo {
         }
     }
 
+    /**
+     * Chunks cached by Geyser itself across all sessions; memory is in megabytes
+     */
+    public record ChunkCacheInfo(int cachedChunks, long memory, long evictedChunks) {
+    }
+
+    /**
+     * Chunk blobs of online sessions that the client already had cached or had to be sent; saved is in megabytes
+     */
+    public record BlobCacheInfo(long cachedBlobs, long missedBlobs, long saved) {
+    }
+
+    /**
+     * Translated chunks shared between sessions, and how often a chunk was found in or missing from the cache
+     */
+    public record SharedChunkCacheInfo(long cachedChunks, long hits, long misses) {
+    }
+
+    /**
+     * Packets dropped by the per-prefix rate limit, how many prefixes were limited, and the counts of the most limited
+     * prefixes. The prefixes are left out, as they would reveal player IP addresses.
+     */
+    public record RateLimitInfo(long rejectedPackets, int limitedPrefixes, List<Long> topPrefixRejections) {
+    }
+
+    /**
+     * Packet batches sent to Bedrock clients, across all sessions
+     */
+    public record UpstreamBatchInfo(long batchesPerSecond, double packetsPerBatch) {
+    }
+
+    /**
+     * Session ticks since startup: how often one ran more than a tick late, and how long they took
+     */
+    public record TickInfo(long overruns, Map<String, Long> durations) {
+    }
+
+    /**
+     * Whether virtual threads are in use, and how often and how long they held on to their carrier thread
+     */
+    public record VirtualThreadInfo(boolean enabled, long pinned, long pinnedMillis) {
+    }
+
     /**
      * E.G. `-Xmx1024M` - all runtime JVM flags on this machine
      */
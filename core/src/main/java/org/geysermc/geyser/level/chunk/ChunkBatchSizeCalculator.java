@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import lombok.Getter;
+import org.geysermc.geyser.session.GeyserSession;
+
+/**
+ * Decides how many chunks per tick the Java server should send, which it is told whenever a chunk batch was received.
+ * <p>
+ * Like the Java client, this measures how long each chunk of a batch took to handle - here, from the start of the batch
+ * until all of its chunks were translated and sent. On top of that, the rate is lowered for connections with a high
+ * round trip time or that are still working through chunks held back by the send budget, so slow Bedrock connections
+ * are not flooded with chunks they cannot absorb.
+ * <p>
+ * Only used from the session's event loop.
+ */
+public final class ChunkBatchSizeCalculator {
+    /**
+     * Matches the Java client's assumption of how many nanoseconds per tick can be spent on chunks
+     */
+    private static final double NANOS_PER_TICK_FOR_CHUNKS = 7_000_000.0;
+    private static final int MAX_OLD_SAMPLES_WEIGHT = 49;
+    private static final double CLAMP_COEFFICIENT = 3.0;
+    /**
+     * Round trip times, in milliseconds, above this slow down chunk sending proportionally
+     */
+    private static final double COMFORTABLE_PING = 150.0;
+    private static final float MIN_CHUNKS_PER_TICK = 0.01f;
+    private static final float MAX_CHUNKS_PER_TICK = 64f;
+
+    private final GeyserSession session;
+
+    private double aggregatedNanosPerChunk = 2_000_000.0;
+    private int oldSamplesWeight = 1;
+    private long batchStartTime = System.nanoTime();
+    /**
+     * The last amount of chunks per tick requested from the server
+     */
+    @Getter
+    private float desiredChunksPerTick = 20;
+
+    public ChunkBatchSizeCalculator(GeyserSession session) {
+        this.session = session;
+    }
+
+    public void onBatchStart() {
+        this.batchStartTime = System.nanoTime();
+    }
+
+    /**
+     * @param batchSize the amount of chunks in the batch
+     * @return the amount of chunks per tick the server should send from now on
+     */
+    public float onBatchFinished(int batchSize) {
+        if (batchSize > 0) {
+            double nanosPerChunk = (double) (System.nanoTime() - batchStartTime) / batchSize;
+            double clamped = Math.max(aggregatedNanosPerChunk / CLAMP_COEFFICIENT, Math.min(nanosPerChunk, aggregatedNanosPerChunk * CLAMP_COEFFICIENT));
+            aggregatedNanosPerChunk = (aggregatedNanosPerChunk * oldSamplesWeight + clamped) / (oldSamplesWeight + 1);
+            oldSamplesWeight = Math.min(MAX_OLD_SAMPLES_WEIGHT, oldSamplesWeight + 1);
+        }
+
+        double chunksPerTick = NANOS_PER_TICK_FOR_CHUNKS / aggregatedNanosPerChunk;
+
+        int ping = session.ping();
+        if (ping > COMFORTABLE_PING) {
+            chunksPerTick *= Math.max(0.25, COMFORTABLE_PING / ping);
+        }
+        if (session.getUpstream().getHeldPacketCount() > 0) {
+            // The connection already can't keep up with the chunks it has
+            chunksPerTick *= 0.5;
+        }
+
+        this.desiredChunksPerTick = (float) Math.max(MIN_CHUNKS_PER_TICK, Math.min(chunksPerTick, MAX_CHUNKS_PER_TICK));
+        return this.desiredChunksPerTick;
+    }
+}
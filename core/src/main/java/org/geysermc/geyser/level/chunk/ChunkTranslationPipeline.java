@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Translates chunks of a session on the shared chunk translation pool, so the session's event loop is not blocked
+ * by a burst of chunks. Results are always handled on the event loop, and in the order the chunks were received.
+ * <p>
+ * Everything but the work submitted to the pool is only touched from the session's event loop.
+ */
+public final class ChunkTranslationPipeline {
+    private final GeyserSession session;
+    /**
+     * Null if chunks should be translated on the event loop.
+     */
+    private final Executor executor;
+    private final Queue<Task<?>> tasks = new ArrayDeque<>();
+    /**
+     * Increased whenever pending chunks are discarded, so their results are ignored once they finish.
+     */
+    private int generation;
+
+    public ChunkTranslationPipeline(GeyserSession session) {
+        this.session = session;
+        this.executor = session.getGeyser().getChunkTranslationExecutor();
+    }
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * @return true if there are no chunks waiting to be sent
+     */
+    public boolean isIdle() {
+        return tasks.isEmpty();
+    }
+
+    /**
+     * Runs the work on the translation pool. The completion is called on the event loop, once every chunk
+     * submitted before has been handled.
+     *
+     * @param work the part of the translation that does not depend on the session
+     * @param completion the part of the translation that does
+     */
+    public <T> void submit(Supplier<T> work, Consumer<T> completion) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            // Geyser is shutting down
+            return;
+        }
+        tasks.add(new Task<>(future, completion, true));
+
+        int generation = this.generation;
+        future.whenComplete((result, throwable) -> session.executeInEventLoop(() -> {
+            if (generation == this.generation) {
+                drain();
+            }
+        }));
+    }
+
+    /**
+     * Runs a task after all pending chunks have been handled, or immediately if there are none.
+     */
+    public void runInOrder(Runnable runnable) {
+        if (tasks.isEmpty()) {
+            runnable.run();
+            return;
+        }
+        tasks.add(new Task<>(CompletableFuture.completedFuture(null), ignored -> runnable.run(), false));
+    }
+
+    /**
+     * Discards all pending chunks, for example when switching dimensions. Tasks waiting for them run right away,
+     * as they include acknowledging chunk batches, without which the server stops sending chunks.
+     */
+    public void clear() {
+        tasks.removeIf(task -> {
+            if (task.chunk) {
+                task.future.cancel(false);
+                return true;
+            }
+            return false;
+        });
+        generation++;
+        drain();
+    }
+
+    private void drain() {
+        if (session.isClosed()) {
+            for (Task<?> task : tasks) {
+                task.future.cancel(false);
+            }
+            tasks.clear();
+            generation++;
+            return;
+        }
+
+        Task<?> task;
+        while ((task = tasks.peek()) != null && task.future.isDone()) {
+            tasks.poll();
+            try {
+                task.complete();
+            } catch (Throwable t) {
+                session.getGeyser().getLogger().error("Error while translating chunk", t);
+            }
+        }
+    }
+
+    /**
+     * @param chunk false if the task was queued with {@link #runInOrder(Runnable)}
+     */
+    private record Task<T>(CompletableFuture<T> future, Consumer<T> completion, boolean chunk) {
+        void complete() {
+            // Throws the exception of the work, if there was one
+            completion.accept(future.join());
+        }
+    }
+}
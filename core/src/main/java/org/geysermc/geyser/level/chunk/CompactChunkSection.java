@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.level.block.type.Block;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.BitStorage;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.DataPalette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.GlobalPalette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.Palette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.SingletonPalette;
+
+import java.util.Arrays;
+
+/**
+ * An immutable, compact copy of a Java chunk section's block states. Entries are packed with as few bits as the
+ * palette allows, and sections consisting of a single block state don't store any data at all.
+ * <p>
+ * Since sections are immutable, identical sections can be shared between all sessions with {@link #intern()}.
+ * Sessions copy a section into a mutable {@link DataPalette} before changing it.
+ */
+public final class CompactChunkSection {
+    private static final long[] EMPTY_DATA = new long[0];
+
+    /**
+     * Shared by every section consisting only of air.
+     */
+    public static final CompactChunkSection AIR = new CompactChunkSection(new int[] {Block.JAVA_AIR_ID}, 0, EMPTY_DATA);
+
+    private static final int SECTION_SIZE = 4096;
+
+    /**
+     * Sections are only kept here as long as a session still references them.
+     */
+    private static final Interner<CompactChunkSection> INTERNER = Interners.newWeakInterner();
+
+    /**
+     * Java block states by palette index, or null if the data holds block states directly.
+     */
+    private final int @Nullable [] palette;
+    private final int bits;
+    private final int valuesPerLong;
+    private final long[] data;
+    private final int hash;
+
+    private CompactChunkSection(int @Nullable [] palette, int bits, long[] data) {
+        this.palette = palette;
+        this.bits = bits;
+        this.valuesPerLong = bits == 0 ? 0 : Long.SIZE / bits;
+        this.data = data;
+        this.hash = 31 * (31 * bits + Arrays.hashCode(palette)) + Arrays.hashCode(data);
+    }
+
+    /**
+     * Creates a compact copy of a Java chunk section. The storage of the given section may be reused, so it must
+     * not be modified afterwards.
+     */
+    public static CompactChunkSection from(DataPalette section) {
+        Palette javaPalette = section.getPalette();
+        if (javaPalette instanceof SingletonPalette) {
+            return singleton(javaPalette.idToState(0));
+        }
+
+        BitStorage storage = section.getStorage();
+        if (javaPalette instanceof GlobalPalette) {
+            return new CompactChunkSection(null, storage.getBitsPerEntry(), storage.getData());
+        }
+
+        int[] palette = new int[javaPalette.size()];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = javaPalette.idToState(i);
+        }
+        if (palette.length == 1) {
+            return singleton(palette[0]);
+        }
+
+        int bits = Integer.SIZE - Integer.numberOfLeadingZeros(palette.length - 1);
+        if (bits == storage.getBitsPerEntry()) {
+            return new CompactChunkSection(palette, bits, storage.getData());
+        }
+
+        // Java uses at least four bits per entry; repack with only as many as needed
+        int valuesPerLong = Long.SIZE / bits;
+        long[] data = new long[(SECTION_SIZE + valuesPerLong - 1) / valuesPerLong];
+        for (int i = 0; i < SECTION_SIZE; i++) {
+            data[i / valuesPerLong] |= ((long) storage.get(i)) << ((i % valuesPerLong) * bits);
+        }
+        return new CompactChunkSection(palette, bits, data);
+    }
+
+    private static CompactChunkSection singleton(int state) {
+        if (state == Block.JAVA_AIR_ID) {
+            return AIR;
+        }
+        return new CompactChunkSection(new int[] {state}, 0, EMPTY_DATA);
+    }
+
+    /**
+     * @return an identical section that is shared with every other session that has it cached
+     */
+    public CompactChunkSection intern() {
+        if (this == AIR) {
+            return this;
+        }
+        return INTERNER.intern(this);
+    }
+
+    public int get(int x, int y, int z) {
+        if (bits == 0) {
+            return palette[0];
+        }
+
+        int index = y << 8 | z << 4 | x;
+        int value = (int) ((data[index / valuesPerLong] >>> ((index % valuesPerLong) * bits)) & ((1L << bits) - 1));
+        return palette == null ? value : palette[value];
+    }
+
+    /**
+     * @return a mutable copy of this section
+     */
+    public DataPalette toDataPalette() {
+        DataPalette section = DataPalette.createForChunk();
+        // Make sure that palette ID 0, which every entry starts as, is air
+        section.getPalette().stateToId(Block.JAVA_AIR_ID);
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int state = get(x, y, z);
+                    if (state != Block.JAVA_AIR_ID) {
+                        section.set(x, y, z, state);
+                    }
+                }
+            }
+        }
+        return section;
+    }
+
+    /**
+     * @return the approximate amount of memory used by this section, in bytes
+     */
+    public int memoryUsage() {
+        if (this == AIR) {
+            return 0;
+        }
+        return 32 + (palette == null ? 0 : 16 + palette.length * 4) + 16 + data.length * 8;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactChunkSection other)) {
+            return false;
+        }
+        return hash == other.hash && bits == other.bits && Arrays.equals(palette, other.palette) && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * @return the approximate amount of memory used by a mutable section, in bytes
+     */
+    public static int memoryUsage(DataPalette section) {
+        BitStorage storage = section.getStorage();
+        return 64 + section.getPalette().size() * 8 + (storage == null ? 0 : 16 + storage.getData().length * 8);
+    }
+}
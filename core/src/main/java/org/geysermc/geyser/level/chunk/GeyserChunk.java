@@ -29,10 +29,70 @@ import org.geysermc.mcprotocollib.protocol.data.game.chunk.DataPalette;
 
 /**
  * Acts as a lightweight chunk class that doesn't store biomes, heightmaps or block entities.
+ * <p>
+ * Sections are stored in their compact form until a block in them changes.
  */
-public record GeyserChunk(DataPalette[] sections) {
+public final class GeyserChunk {
+    private final CompactChunkSection[] sections;
+    /**
+     * Sections that have been modified since the chunk was received, by section index. Null until the first change.
+     */
+    private DataPalette[] modifiedSections;
+    private long memoryUsage;
 
-    public static GeyserChunk from(DataPalette[] sections) {
+    private GeyserChunk(CompactChunkSection[] sections) {
+        this.sections = sections;
+        long memoryUsage = 32 + sections.length * 8L;
+        for (CompactChunkSection section : sections) {
+            memoryUsage += section.memoryUsage();
+        }
+        this.memoryUsage = memoryUsage;
+    }
+
+    public static GeyserChunk from(CompactChunkSection[] sections) {
         return new GeyserChunk(sections);
     }
+
+    public int sectionCount() {
+        return sections.length;
+    }
+
+    public int get(int sectionIndex, int x, int y, int z) {
+        if (modifiedSections != null) {
+            DataPalette modified = modifiedSections[sectionIndex];
+            if (modified != null) {
+                return modified.get(x, y, z);
+            }
+        }
+        return sections[sectionIndex].get(x, y, z);
+    }
+
+    public void set(int sectionIndex, int x, int y, int z, int block) {
+        if (modifiedSections == null) {
+            modifiedSections = new DataPalette[sections.length];
+            memoryUsage += 16 + sections.length * 8L;
+        }
+
+        DataPalette modified = modifiedSections[sectionIndex];
+        if (modified == null) {
+            if (sections[sectionIndex].get(x, y, z) == block) {
+                // Nothing to update
+                return;
+            }
+            modified = sections[sectionIndex].toDataPalette();
+            modifiedSections[sectionIndex] = modified;
+            memoryUsage += CompactChunkSection.memoryUsage(modified);
+        }
+
+        long previousUsage = CompactChunkSection.memoryUsage(modified);
+        modified.set(x, y, z, block);
+        memoryUsage += CompactChunkSection.memoryUsage(modified) - previousUsage;
+    }
+
+    /**
+     * @return the approximate amount of memory used by this chunk, in bytes
+     */
+    public long memoryUsage() {
+        return memoryUsage;
+    }
 }
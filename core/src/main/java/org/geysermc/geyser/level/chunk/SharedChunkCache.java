@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.level.BedrockDimension;
+import org.geysermc.geyser.util.XXHash64;
+
+/**
+ * Holds translated chunks that can be reused by every session, since many players on the same server
+ * usually receive the same chunks. Entries are keyed by the raw Java chunk data, so a chunk that has been
+ * modified in any way simply results in a new entry.
+ */
+public final class SharedChunkCache {
+    private final Cache<Key, TranslatedChunk> cache;
+
+    /**
+     * @param maxSizeMegabytes the maximum size of this cache; 0 to disable it
+     */
+    public SharedChunkCache(int maxSizeMegabytes) {
+        if (maxSizeMegabytes > 0) {
+            this.cache = CacheBuilder.newBuilder()
+                    .maximumWeight(maxSizeMegabytes * 1024L * 1024L)
+                    .<Key, TranslatedChunk>weigher((key, chunk) -> chunk.weight())
+                    .recordStats()
+                    .build();
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public @Nullable TranslatedChunk get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(Key key, TranslatedChunk chunk) {
+        cache.put(key, chunk);
+    }
+
+    public void clear() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public long hitCount() {
+        return cache == null ? 0 : cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache == null ? 0 : cache.stats().missCount();
+    }
+
+    public long size() {
+        return cache == null ? 0 : cache.size();
+    }
+
+    /**
+     * @param chunkData the raw Java chunk data
+     * @param protocolVersion the Bedrock protocol version, which determines the block mappings used
+     * @param bedrockDimension the Bedrock dimension the chunk is placed in
+     * @param javaMinSectionY the lowest section of the Java world
+     * @param javaSectionCount the amount of sections in the Java world
+     */
+    public static Key key(byte[] chunkData, int protocolVersion, BedrockDimension bedrockDimension, int javaMinSectionY, int javaSectionCount) {
+        return new Key(XXHash64.hash(chunkData), chunkData.length, protocolVersion, bedrockDimension.minY(),
+                bedrockDimension.height(), javaMinSectionY, javaSectionCount);
+    }
+
+    public record Key(long contentHash, int contentLength, int protocolVersion, int bedrockMinY, int bedrockHeight,
+                      int javaMinSectionY, int javaSectionCount) {
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import org.geysermc.geyser.level.BedrockDimension;
+
+import static org.geysermc.geyser.util.ChunkUtils.EMPTY_BLOCK_STORAGE;
+import static org.geysermc.geyser.util.ChunkUtils.EMPTY_CHUNK_SECTION_SIZE;
+
+/**
+ * The Bedrock block data of a chunk column, as translated from a Java chunk. Biomes and block entities are not
+ * included since their translation depends on the session.
+ * <p>
+ * A translated chunk either holds its sections as {@link GeyserChunkSection}s, which may still be modified, or
+ * as encoded bytes, which are immutable and can be shared between sessions.
+ */
+public final class TranslatedChunk {
+    private final GeyserChunkSection[] sections;
+    private final byte[][] encodedSections;
+    private final int sectionCount;
+    /**
+     * Pairs of {@code (javaSectionY << 12) | yzx} and Java block state of blocks that need a Bedrock-only block entity.
+     */
+    private final int[] bedrockOnlyBlockEntities;
+
+    public TranslatedChunk(GeyserChunkSection[] sections, int[] bedrockOnlyBlockEntities) {
+        this(sections, null, highestSection(sections), bedrockOnlyBlockEntities);
+    }
+
+    private TranslatedChunk(GeyserChunkSection[] sections, byte[][] encodedSections, int sectionCount, int[] bedrockOnlyBlockEntities) {
+        this.sections = sections;
+        this.encodedSections = encodedSections;
+        this.sectionCount = sectionCount;
+        this.bedrockOnlyBlockEntities = bedrockOnlyBlockEntities;
+    }
+
+    private static int highestSection(GeyserChunkSection[] sections) {
+        int sectionCount = sections.length - 1;
+        while (sectionCount >= 0 && sections[sectionCount] == null) {
+            sectionCount--;
+        }
+        return sectionCount + 1;
+    }
+
+    /**
+     * @return the mutable sections of this chunk
+     * @throws IllegalStateException if this chunk has already been encoded
+     */
+    public GeyserChunkSection[] sections() {
+        if (sections == null) {
+            throw new IllegalStateException("Encoded chunks cannot be modified!");
+        }
+        return sections;
+    }
+
+    /**
+     * @return true if this chunk is immutable and may be shared between sessions
+     */
+    public boolean isEncoded() {
+        return encodedSections != null;
+    }
+
+    /**
+     * @return an immutable copy of this chunk with every section encoded to its network form
+     */
+    public TranslatedChunk encoded() {
+        if (encodedSections != null) {
+            return this;
+        }
+
+        byte[][] encoded = new byte[sectionCount][];
+        ByteBuf byteBuf = ByteBufAllocator.DEFAULT.heapBuffer();
+        try {
+            for (int i = 0; i < sectionCount; i++) {
+                if (sections[i] == null) {
+                    continue;
+                }
+                sections[i].writeToNetwork(byteBuf);
+                encoded[i] = ByteBufUtil.getBytes(byteBuf);
+                byteBuf.clear();
+            }
+        } finally {
+            byteBuf.release();
+        }
+        return new TranslatedChunk(null, encoded, sectionCount, bedrockOnlyBlockEntities);
+    }
+
+    /**
+     * @return the amount of sections, up to and including the highest non-empty one
+     */
+    public int sectionCount() {
+        return sectionCount;
+    }
+
+    public boolean isEmpty(int index) {
+        return encodedSections != null ? encodedSections[index] == null : sections[index] == null;
+    }
+
+    /**
+     * Writes a section to the buffer. Empty sections are written as an empty section with the correct index.
+     *
+     * @param index the Bedrock section index, starting from the bottom of the dimension
+     */
+    public void writeSection(ByteBuf byteBuf, int index, BedrockDimension bedrockDimension) {
+        if (isEmpty(index)) {
+            int subChunkIndex = index + (bedrockDimension.minY() >> 4);
+            new GeyserChunkSection(EMPTY_BLOCK_STORAGE, subChunkIndex).writeToNetwork(byteBuf);
+        } else if (encodedSections != null) {
+            byteBuf.writeBytes(encodedSections[index]);
+        } else {
+            sections[index].writeToNetwork(byteBuf);
+        }
+    }
+
+    public int[] bedrockOnlyBlockEntities() {
+        return bedrockOnlyBlockEntities;
+    }
+
+    public int estimateNetworkSize() {
+        int size = 0;
+        for (int i = 0; i < sectionCount; i++) {
+            if (isEmpty(i)) {
+                size += EMPTY_CHUNK_SECTION_SIZE;
+            } else if (encodedSections != null) {
+                size += encodedSections[i].length;
+            } else {
+                size += sections[i].estimateNetworkSize();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the approximate amount of memory used by this chunk, in bytes
+     */
+    public int weight() {
+        int weight = 64 + bedrockOnlyBlockEntities.length * 4;
+        for (int i = 0; i < sectionCount; i++) {
+            if (!isEmpty(i)) {
+                weight += encodedSections != null ? encodedSections[i].length + 16 : sections[i].estimateNetworkSize();
+            }
+        }
+        return weight;
+    }
+}
@@ -27,6 +27,8 @@ package org.geysermc.geyser.level.chunk.bitarray;
 
 import io.netty.buffer.ByteBuf;
 import org.cloudburstmc.protocol.common.util.VarInts;
+import org.geysermc.geyser.util.ChunkUtils;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.BitStorage;
 
 public interface BitArray {
 
@@ -36,6 +38,16 @@ public interface BitArray {
 
     int size();
 
+    /**
+     * Replaces the contents of this array with a Java chunk section's block storage, converting it from Java's
+     * YZX order to Bedrock's XZY order. Every value in the storage must fit in this array.
+     */
+    default void setAllFromYZX(BitStorage storage) {
+        for (int yzx = 0; yzx < storage.getSize(); yzx++) {
+            set(ChunkUtils.indexYZXtoXZY(yzx), storage.get(yzx));
+        }
+    }
+
     /**
      * Overridden if the bit array implementation does not require size.
      */
@@ -27,6 +27,7 @@ package org.geysermc.geyser.level.chunk.bitarray;
 
 import org.cloudburstmc.protocol.common.util.Preconditions;
 import org.geysermc.geyser.util.MathUtils;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.BitStorage;
 
 import java.util.Arrays;
 
@@ -77,6 +78,11 @@ public class PaddedBitArray implements BitArray {
         return (this.words[arrayIndex] >>> offset) & this.version.maxEntryValue;
     }
 
+    @Override
+    public void setAllFromYZX(BitStorage storage) {
+        SectionTranspose.transpose(storage, this.words, this.version, this.size);
+    }
+
     @Override
     public int size() {
         return this.size;
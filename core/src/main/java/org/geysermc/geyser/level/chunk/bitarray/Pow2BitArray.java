@@ -27,6 +27,7 @@ package org.geysermc.geyser.level.chunk.bitarray;
 
 import org.cloudburstmc.protocol.common.util.Preconditions;
 import org.geysermc.geyser.util.MathUtils;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.BitStorage;
 
 import java.util.Arrays;
 
@@ -81,6 +82,11 @@ public class Pow2BitArray implements BitArray {
         return this.words[arrayIndex] >>> wordOffset & this.version.maxEntryValue;
     }
 
+    @Override
+    public void setAllFromYZX(BitStorage storage) {
+        SectionTranspose.transpose(storage, this.words, this.version, this.size);
+    }
+
     /**
      * Gets the long array that is used to store the data in this BitArray. This is useful for sending packet data.
      */
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk.bitarray;
+
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.BitStorage;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Converts a Java chunk section's block storage from Java's YZX order to Bedrock's XZY order, filling the
+ * Bedrock words one at a time instead of setting every entry separately.
+ */
+final class SectionTranspose {
+    static final int SECTION_SIZE = 4096;
+
+    /**
+     * For every Java bits per entry: for every XZY index, the long index and bit offset of that entry in the
+     * Java storage, stored as {@code (longIndex << 6) | offset}.
+     */
+    private static final AtomicReferenceArray<int[]> TABLES = new AtomicReferenceArray<>(Long.SIZE);
+
+    private SectionTranspose() {
+    }
+
+    static void transpose(BitStorage storage, int[] words, BitArrayVersion version, int size) {
+        if (size != SECTION_SIZE || storage.getSize() != SECTION_SIZE) {
+            throw new IllegalArgumentException("Can only transpose full chunk sections!");
+        }
+
+        int javaBits = storage.getBitsPerEntry();
+        if (javaBits == 0) {
+            // Every entry is zero
+            Arrays.fill(words, 0);
+            return;
+        }
+
+        long[] data = storage.getData();
+        int[] table = table(javaBits);
+        long mask = (1L << javaBits) - 1;
+        int bits = version.bits;
+        int entriesPerWord = version.entriesPerWord;
+
+        int index = 0;
+        for (int i = 0; i < words.length; i++) {
+            int end = Math.min(entriesPerWord, size - index);
+            int word = 0;
+            for (int j = 0; j < end; j++) {
+                int source = table[index++];
+                word |= (int) ((data[source >>> 6] >>> (source & 63)) & mask) << (j * bits);
+            }
+            words[i] = word;
+        }
+    }
+
+    private static int[] table(int javaBits) {
+        int[] table = TABLES.get(javaBits);
+        if (table == null) {
+            // Entries don't span multiple longs in Java's storage
+            int valuesPerLong = Long.SIZE / javaBits;
+            table = new int[SECTION_SIZE];
+            for (int xzy = 0; xzy < SECTION_SIZE; xzy++) {
+                int yzx = (xzy >> 8) | (xzy & 0x0F0) | ((xzy & 0x00F) << 8);
+                table[xzy] = ((yzx / valuesPerLong) << 6) | ((yzx % valuesPerLong) * javaBits);
+            }
+            TABLES.set(javaBits, table);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+
+/**
+ * Turns addresses into two longs, so they can be used as keys without allocating.
+ * IPv4 addresses are stored as IPv4-mapped IPv6 addresses.
+ */
+public final class AddressPrefix {
+
+    /**
+     * Writes the network prefix of the address to the first two elements of the key.
+     * IPv4 addresses do not allocate; IPv6 addresses have to copy their 16 bytes.
+     *
+     * @param ipv4Prefix the amount of leading bits kept of IPv4 addresses
+     * @param ipv6Prefix the amount of leading bits kept of IPv6 addresses
+     */
+    public static void write(InetAddress address, int ipv4Prefix, int ipv6Prefix, long[] key) {
+        if (address instanceof Inet4Address) {
+            // The hash code of an IPv4 address is the address itself
+            int mask = ipv4Prefix == 0 ? 0 : -1 << (32 - ipv4Prefix);
+            key[0] = 0;
+            key[1] = 0xFFFF00000000L | ((address.hashCode() & mask) & 0xFFFFFFFFL);
+            return;
+        }
+
+        byte[] bytes = address.getAddress();
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < 8; i++) {
+            high = (high << 8) | (bytes[i] & 0xFF);
+            low = (low << 8) | (bytes[i + 8] & 0xFF);
+        }
+        if (ipv6Prefix <= 64) {
+            high &= ipv6Prefix == 0 ? 0 : -1L << (64 - ipv6Prefix);
+            low = 0;
+        } else {
+            low &= -1L << (128 - ipv6Prefix);
+        }
+        key[0] = high;
+        key[1] = low;
+    }
+
+    /**
+     * @return the key in CIDR notation
+     */
+    public static String toString(long high, long low, int ipv4Prefix, int ipv6Prefix) {
+        if (high == 0 && (low >>> 32) == 0xFFFF) {
+            return ((low >>> 24) & 0xFF) + "." + ((low >>> 16) & 0xFF) + "." + ((low >>> 8) & 0xFF) + "." + (low & 0xFF) + "/" + ipv4Prefix;
+        }
+
+        StringBuilder builder = new StringBuilder(44);
+        for (int i = 0; i < 8; i++) {
+            long part = i < 4 ? high : low;
+            int shift = 48 - (i % 4) * 16;
+            if (i > 0) {
+                builder.append(':');
+            }
+            builder.append(Integer.toHexString((int) ((part >>> shift) & 0xFFFF)));
+        }
+        return builder.append('/').append(ipv6Prefix).toString();
+    }
+
+    private AddressPrefix() {
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Matches addresses against any amount of IPv4 and IPv6 ranges in CIDR notation, in at most 32 or 128 steps.
+ * Immutable once compiled, so it can be used from any thread.
+ */
+public final class CIDRTrie {
+    private static final int IPV4_ROOT = 0;
+    private static final int IPV6_ROOT = 1;
+
+    /**
+     * The two children of every node, or zero if there is no child; no node can point back to a root.
+     */
+    private final int[] children;
+    /**
+     * Whether a range ends at the node, so every address below it matches.
+     */
+    private final boolean[] terminal;
+
+    private CIDRTrie(int[] children, boolean[] terminal) {
+        this.children = children;
+        this.terminal = terminal;
+    }
+
+    /**
+     * @param ranges IP addresses, with or without a prefix length, e.g. {@code 192.168.0.0/16} or {@code 2001:db8::1}
+     * @throws IllegalArgumentException if a range is not valid
+     */
+    public static CIDRTrie compile(Collection<String> ranges) {
+        Builder builder = new Builder();
+        for (String range : ranges) {
+            builder.add(range.trim());
+        }
+        return builder.build();
+    }
+
+    public boolean matches(InetAddress address) {
+        if (address instanceof Inet4Address) {
+            // The hash code of an IPv4 address is the address itself
+            int bits = address.hashCode();
+            int node = IPV4_ROOT;
+            for (int i = 31; i >= 0; i--) {
+                if (this.terminal[node]) {
+                    return true;
+                }
+                node = this.children[node * 2 + ((bits >>> i) & 1)];
+                if (node == 0) {
+                    return false;
+                }
+            }
+            return this.terminal[node];
+        }
+
+        byte[] bytes = address.getAddress();
+        int node = IPV6_ROOT;
+        for (int i = 0; i < 128; i++) {
+            if (this.terminal[node]) {
+                return true;
+            }
+            node = this.children[node * 2 + ((bytes[i >>> 3] >>> (7 - (i & 7))) & 1)];
+            if (node == 0) {
+                return false;
+            }
+        }
+        return this.terminal[node];
+    }
+
+    private static final class Builder {
+        private int[] children = new int[64];
+        private boolean[] terminal = new boolean[32];
+        private int size = 2; // Both roots
+
+        void add(String range) {
+            String[] split = range.split("/", 2);
+
+            InetAddress address;
+            try {
+                address = InetAddress.getByName(split[0]);
+            } catch (UnknownHostException e) {
+                throw new IllegalArgumentException("Invalid IP address in " + range, e);
+            }
+            byte[] bytes = address.getAddress();
+            int maxPrefix = bytes.length * 8;
+
+            int prefix = maxPrefix;
+            if (split.length == 2) {
+                try {
+                    prefix = Integer.parseInt(split[1]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid prefix length in " + range, e);
+                }
+                if (prefix < 0 || prefix > maxPrefix) {
+                    throw new IllegalArgumentException("Invalid prefix length in " + range);
+                }
+            }
+
+            int node = bytes.length == 4 ? IPV4_ROOT : IPV6_ROOT;
+            for (int i = 0; i < prefix; i++) {
+                if (this.terminal[node]) {
+                    // Already covered by a wider range
+                    return;
+                }
+                int index = node * 2 + ((bytes[i >>> 3] >>> (7 - (i & 7))) & 1);
+                node = this.children[index];
+                if (node == 0) {
+                    // May grow the arrays, so it cannot be inlined into the assignment
+                    node = newNode();
+                    this.children[index] = node;
+                }
+            }
+            this.terminal[node] = true;
+        }
+
+        private int newNode() {
+            if (this.size == this.terminal.length) {
+                this.terminal = Arrays.copyOf(this.terminal, this.size * 2);
+                this.children = Arrays.copyOf(this.children, this.size * 4);
+            }
+            return this.size++;
+        }
+
+        CIDRTrie build() {
+            return new CIDRTrie(Arrays.copyOf(this.children, this.size * 2), Arrays.copyOf(this.terminal, this.size));
+        }
+    }
+}
@@ -106,7 +106,11 @@ public final class GameProtocol {
     }
 
     public static boolean is1_21_80orHigher(GeyserSession session) {
-        return session.protocolVersion() >= Bedrock_v800.CODEC.getProtocolVersion();
+        return is1_21_80orHigher(session.protocolVersion());
+    }
+
+    public static boolean is1_21_80orHigher(int protocolVersion) {
+        return protocolVersion >= Bedrock_v800.CODEC.getProtocolVersion();
     }
 
     /**
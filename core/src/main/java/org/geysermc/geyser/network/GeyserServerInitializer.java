@@ -27,6 +27,7 @@ package org.geysermc.geyser.network;
 
 import io.netty.channel.Channel;
 import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoop;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.cloudburstmc.protocol.bedrock.BedrockPeer;
@@ -62,9 +63,11 @@ public class GeyserServerInitializer extends BedrockServerInitializer {
             }
 
             bedrockServerSession.setLogging(true);
-            GeyserSession session = new GeyserSession(this.geyser, bedrockServerSession, this.eventLoopGroup.next());
-
             Channel channel = bedrockServerSession.getPeer().getChannel();
+            // With affinity, the session ticks and translates on the same thread that reads and writes its connection
+            EventLoop eventLoop = this.geyser.getConfig().isSessionThreadAffinity() ? channel.eventLoop() : this.eventLoopGroup.next();
+            GeyserSession session = new GeyserSession(this.geyser, bedrockServerSession, eventLoop);
+
             channel.pipeline().addAfter(BedrockPacketCodec.NAME, InvalidPacketHandler.NAME, new InvalidPacketHandler(session));
 
             bedrockServerSession.setPacketHandler(new UpstreamPacketHandler(this.geyser, session));
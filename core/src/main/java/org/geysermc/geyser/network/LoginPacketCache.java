@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.nbt.NbtMap;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodecHelper;
+import org.cloudburstmc.protocol.bedrock.packet.AvailableEntityIdentifiersPacket;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.BiomeDefinitionListPacket;
+import org.cloudburstmc.protocol.bedrock.packet.CameraPresetsPacket;
+import org.cloudburstmc.protocol.bedrock.packet.CreativeContentPacket;
+import org.cloudburstmc.protocol.bedrock.packet.ItemComponentPacket;
+import org.cloudburstmc.protocol.bedrock.packet.SyncEntityPropertyPacket;
+import org.cloudburstmc.protocol.bedrock.packet.UnknownPacket;
+import org.geysermc.geyser.impl.camera.CameraDefinitions;
+import org.geysermc.geyser.registry.BlockRegistries;
+import org.geysermc.geyser.registry.Registries;
+import org.geysermc.geyser.registry.type.ItemMappings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the large packets sent to every player while joining, serialized once per Bedrock codec.
+ * None of these depend on the session; only on the registries for the protocol version, so they are
+ * cleared whenever Geyser reloads.
+ */
+public final class LoginPacketCache {
+    private final Map<Integer, LoginPackets> packets = new ConcurrentHashMap<>();
+
+    /**
+     * @return the serialized login packets for this codec, encoding them if this is the first join with it
+     */
+    public LoginPackets get(BedrockCodec codec) {
+        return packets.computeIfAbsent(codec.getProtocolVersion(), protocolVersion -> encode(codec));
+    }
+
+    public void clear() {
+        packets.clear();
+    }
+
+    private static LoginPackets encode(BedrockCodec codec) {
+        int protocolVersion = codec.getProtocolVersion();
+        ItemMappings itemMappings = Registries.ITEMS.forVersion(protocolVersion);
+
+        // Mirrors the definitions set on the session's codec helper in GeyserSession#startGame
+        BedrockCodecHelper helper = codec.createHelper();
+        helper.setItemDefinitions(itemMappings);
+        helper.setBlockDefinitions(BlockRegistries.BLOCKS.forVersion(protocolVersion));
+        helper.setCameraPresetDefinitions(CameraDefinitions.CAMERA_DEFINITIONS);
+
+        List<EncodedPacket> entityProperties = new ArrayList<>();
+        for (NbtMap nbtMap : Registries.BEDROCK_ENTITY_PROPERTIES.get()) {
+            SyncEntityPropertyPacket syncEntityPropertyPacket = new SyncEntityPropertyPacket();
+            syncEntityPropertyPacket.setData(nbtMap);
+            entityProperties.add(EncodedPacket.of(codec, helper, syncEntityPropertyPacket));
+        }
+
+        ItemComponentPacket componentPacket = new ItemComponentPacket();
+        if (GameProtocol.isPreCreativeInventoryRewrite(protocolVersion)) {
+            componentPacket.getItems().addAll(itemMappings.getComponentItemData());
+        } else {
+            componentPacket.getItems().addAll(itemMappings.getItemDefinitions().values());
+        }
+
+        BiomeDefinitionListPacket biomeDefinitionListPacket = new BiomeDefinitionListPacket();
+        if (GameProtocol.is1_21_80orHigher(protocolVersion)) {
+            biomeDefinitionListPacket.setBiomes(Registries.BIOMES.get());
+        } else {
+            biomeDefinitionListPacket.setDefinitions(Registries.BIOMES_NBT.get());
+        }
+
+        AvailableEntityIdentifiersPacket entityPacket = new AvailableEntityIdentifiersPacket();
+        entityPacket.setIdentifiers(Registries.BEDROCK_ENTITY_IDENTIFIERS.get());
+
+        CameraPresetsPacket cameraPresetsPacket = new CameraPresetsPacket();
+        cameraPresetsPacket.getPresets().addAll(CameraDefinitions.CAMERA_PRESETS);
+
+        CreativeContentPacket creativePacket = new CreativeContentPacket();
+        creativePacket.getContents().addAll(itemMappings.getCreativeItems());
+        creativePacket.getGroups().addAll(itemMappings.getCreativeItemGroups());
+
+        return new LoginPackets(
+            List.copyOf(entityProperties),
+            EncodedPacket.of(codec, helper, componentPacket),
+            EncodedPacket.of(codec, helper, biomeDefinitionListPacket),
+            EncodedPacket.of(codec, helper, entityPacket),
+            EncodedPacket.of(codec, helper, cameraPresetsPacket),
+            EncodedPacket.of(codec, helper, creativePacket)
+        );
+    }
+
+    public record LoginPackets(List<EncodedPacket> entityProperties, EncodedPacket itemComponents, EncodedPacket biomeDefinitions,
+                               EncodedPacket entityIdentifiers, EncodedPacket cameraPresets, EncodedPacket creativeContent) {
+    }
+
+    /**
+     * The body of a packet that has already been serialized, which is written out again as-is.
+     */
+    public record EncodedPacket(int packetId, byte[] body) {
+
+        static EncodedPacket of(BedrockCodec codec, BedrockCodecHelper helper, BedrockPacket packet) {
+            ByteBuf buffer = ByteBufAllocator.DEFAULT.heapBuffer();
+            try {
+                codec.tryEncode(helper, buffer, packet);
+                return new EncodedPacket(codec.getPacketDefinition(packet.getClass()).getId(), ByteBufUtil.getBytes(buffer));
+            } finally {
+                buffer.release();
+            }
+        }
+
+        /**
+         * @return a packet that writes this body without serializing it again
+         */
+        public BedrockPacket toPacket() {
+            UnknownPacket packet = new UnknownPacket();
+            packet.setPacketId(packetId);
+            packet.setPayload(Unpooled.wrappedBuffer(body));
+            return packet;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network.compression;
+
+import io.netty.buffer.ByteBuf;
+import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionStrategy;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.NoopCompression;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.SnappyCompression;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * Chooses how every batch sent to a Bedrock client is compressed.
+ * <ul>
+ *     <li>Batches smaller than the compression threshold are sent uncompressed.</li>
+ *     <li>Clients on the local network are offered Snappy, which trades bandwidth for far less CPU time.</li>
+ *     <li>Otherwise, zlib is used. If adaptive compression is enabled, the configured level is lowered for large batches
+ *     and while the process is under heavy CPU load.</li>
+ * </ul>
+ */
+public final class AdaptiveCompressionStrategy implements CompressionStrategy {
+    /**
+     * Batches of at least this size (mostly chunks) gain little from the highest levels but cost the most CPU time
+     */
+    private static final int LARGE_BATCH_SIZE = 64 * 1024;
+    private static final double MODERATE_CPU_LOAD = 0.7;
+    private static final double HIGH_CPU_LOAD = 0.9;
+    private static final long CPU_LOAD_SAMPLE_INTERVAL = 1_000_000_000L;
+
+    private static volatile double cpuLoad = 0;
+    private static volatile long lastCpuLoadSample = 0;
+
+    private final PacketCompressionAlgorithm algorithm;
+    private final int threshold;
+    private final boolean adaptive;
+
+    private final BatchCompression noop = new MeasuredCompression(new NoopCompression());
+    private final BatchCompression snappy;
+    /**
+     * Compresses at the session's level, which can be changed through {@link BatchCompression#setLevel(int)}
+     */
+    private final BatchCompression zlib;
+    /**
+     * Compresses at the level adapted for the current batch
+     */
+    private final BatchCompression adaptedZlib;
+
+    public AdaptiveCompressionStrategy(PacketCompressionAlgorithm algorithm, GeyserConfiguration.IBedrockConfiguration config) {
+        this.algorithm = algorithm;
+        this.threshold = config.getCompressionThreshold();
+        this.adaptive = config.isAdaptiveCompression();
+
+        this.snappy = algorithm == PacketCompressionAlgorithm.SNAPPY ? new MeasuredCompression(new SnappyCompression()) : null;
+        this.zlib = new MeasuredCompression(new PooledZlibCompression(config.getCompressionLevel()));
+        this.adaptedZlib = new MeasuredCompression(new PooledZlibCompression(config.getCompressionLevel()));
+    }
+
+    /**
+     * @return the algorithm negotiated with the client
+     */
+    public PacketCompressionAlgorithm algorithm() {
+        return algorithm;
+    }
+
+    @Override
+    public BatchCompression getCompression(BedrockBatchWrapper wrapper) {
+        ByteBuf uncompressed = wrapper.getUncompressed();
+        if (uncompressed == null) {
+            return getDefaultCompression();
+        }
+
+        int size = uncompressed.readableBytes();
+        if (size < threshold) {
+            return noop;
+        }
+        if (algorithm == PacketCompressionAlgorithm.SNAPPY) {
+            return snappy;
+        }
+        if (!adaptive) {
+            return zlib;
+        }
+        // Batches are compressed right after this, on the session's own event loop
+        adaptedZlib.setLevel(adaptLevel(size));
+        return adaptedZlib;
+    }
+
+    @Override
+    public BatchCompression getCompression(CompressionAlgorithm algorithm) {
+        if (algorithm == PacketCompressionAlgorithm.NONE) {
+            return noop;
+        }
+        if (algorithm == PacketCompressionAlgorithm.SNAPPY && snappy != null) {
+            return snappy;
+        }
+        if (algorithm == PacketCompressionAlgorithm.ZLIB) {
+            return zlib;
+        }
+        throw new IllegalArgumentException("Unsupported compression algorithm " + algorithm);
+    }
+
+    @Override
+    public BatchCompression getDefaultCompression() {
+        if (algorithm == PacketCompressionAlgorithm.SNAPPY) {
+            return snappy;
+        }
+        return zlib;
+    }
+
+    private int adaptLevel(int size) {
+        int level = zlib.getLevel();
+        if (level <= 1) {
+            // Levels of zero and below disable compression or use zlib's default, so they aren't adapted
+            return level;
+        }
+
+        double load = cpuLoad();
+        if (load >= HIGH_CPU_LOAD) {
+            return 1;
+        }
+
+        int adapted = level;
+        if (load >= MODERATE_CPU_LOAD) {
+            adapted = Math.min(adapted, 3);
+        }
+        if (size >= LARGE_BATCH_SIZE) {
+            adapted = Math.min(adapted, Math.max(1, level - 2));
+        }
+        return adapted;
+    }
+
+    /**
+     * @return the CPU load of this process between 0 and 1, sampled at most once a second
+     */
+    private static double cpuLoad() {
+        long now = System.nanoTime();
+        if (now - lastCpuLoadSample >= CPU_LOAD_SAMPLE_INTERVAL) {
+            lastCpuLoadSample = now;
+            cpuLoad = sampleCpuLoad();
+        }
+        return cpuLoad;
+    }
+
+    private static double sampleCpuLoad() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean sunBean) {
+            double load = sunBean.getProcessCpuLoad();
+            if (load >= 0) {
+                return load;
+            }
+        }
+        // Fall back to the system load average; not available on every platform
+        double loadAverage = bean.getSystemLoadAverage();
+        if (loadAverage < 0) {
+            return 0;
+        }
+        return Math.min(1, loadAverage / bean.getAvailableProcessors());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network.compression;
+
+import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how much data each compression algorithm handled across all sessions, and how long it took.
+ */
+public final class CompressionStatistics {
+    private static final Map<CompressionAlgorithm, Counters> COUNTERS = new ConcurrentHashMap<>();
+
+    static void recordEncode(CompressionAlgorithm algorithm, int uncompressedBytes, int compressedBytes, long nanos) {
+        Counters counters = counters(algorithm);
+        counters.encodedBatches.increment();
+        counters.uncompressedBytes.add(uncompressedBytes);
+        counters.compressedBytes.add(compressedBytes);
+        counters.encodeNanos.add(nanos);
+    }
+
+    static void recordDecode(CompressionAlgorithm algorithm, int compressedBytes, long nanos) {
+        Counters counters = counters(algorithm);
+        counters.decodedBatches.increment();
+        counters.decodedBytes.add(compressedBytes);
+        counters.decodeNanos.add(nanos);
+    }
+
+    private static Counters counters(CompressionAlgorithm algorithm) {
+        return COUNTERS.computeIfAbsent(algorithm, key -> new Counters());
+    }
+
+    /**
+     * @return a snapshot of the counters of every algorithm used so far, keyed by the algorithm's name
+     */
+    public static Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshot = new TreeMap<>();
+        COUNTERS.forEach((algorithm, counters) -> snapshot.put(algorithm.toString(), counters.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * @param encodedBatches the amount of batches compressed for clients
+     * @param uncompressedBytes the size of those batches before compression
+     * @param compressedBytes the size of those batches after compression
+     * @param encodeMillis the total time spent compressing
+     * @param decodedBatches the amount of batches from clients that were decompressed
+     * @param decodedBytes the compressed size of those batches
+     * @param decodeMillis the total time spent decompressing
+     */
+    public record Snapshot(long encodedBatches, long uncompressedBytes, long compressedBytes, long encodeMillis,
+                           long decodedBatches, long decodedBytes, long decodeMillis) {
+    }
+
+    private static final class Counters {
+        private final LongAdder encodedBatches = new LongAdder();
+        private final LongAdder uncompressedBytes = new LongAdder();
+        private final LongAdder compressedBytes = new LongAdder();
+        private final LongAdder encodeNanos = new LongAdder();
+        private final LongAdder decodedBatches = new LongAdder();
+        private final LongAdder decodedBytes = new LongAdder();
+        private final LongAdder decodeNanos = new LongAdder();
+
+        Snapshot snapshot() {
+            return new Snapshot(encodedBatches.sum(), uncompressedBytes.sum(), compressedBytes.sum(), encodeNanos.sum() / 1_000_000L,
+                decodedBatches.sum(), decodedBytes.sum(), decodeNanos.sum() / 1_000_000L);
+        }
+    }
+
+    private CompressionStatistics() {
+    }
+}
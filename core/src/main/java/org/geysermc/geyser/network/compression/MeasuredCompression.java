@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
+
+/**
+ * Wraps a {@link BatchCompression} to record its work in {@link CompressionStatistics}.
+ */
+final class MeasuredCompression implements BatchCompression {
+    private final BatchCompression delegate;
+
+    MeasuredCompression(BatchCompression delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ByteBuf encode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+        int uncompressedBytes = msg.readableBytes();
+        long start = System.nanoTime();
+        ByteBuf encoded = delegate.encode(ctx, msg);
+        CompressionStatistics.recordEncode(getAlgorithm(), uncompressedBytes, encoded.readableBytes(), System.nanoTime() - start);
+        return encoded;
+    }
+
+    @Override
+    public ByteBuf decode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+        int compressedBytes = msg.readableBytes();
+        long start = System.nanoTime();
+        ByteBuf decoded = delegate.decode(ctx, msg);
+        CompressionStatistics.recordDecode(getAlgorithm(), compressedBytes, System.nanoTime() - start);
+        return decoded;
+    }
+
+    @Override
+    public CompressionAlgorithm getAlgorithm() {
+        return delegate.getAlgorithm();
+    }
+
+    @Override
+    public void setLevel(int level) {
+        delegate.setLevel(level);
+    }
+
+    @Override
+    public int getLevel() {
+        return delegate.getLevel();
+    }
+}
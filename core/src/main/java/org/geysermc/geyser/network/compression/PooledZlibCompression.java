@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.DecoderException;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Raw zlib compression that holds no native state of its own. Every thread, in practice every event loop, keeps a
+ * single {@link Deflater} and {@link Inflater} that are reset for each batch, instead of every session owning its
+ * own zlib contexts. Instances only hold their level.
+ */
+final class PooledZlibCompression implements BatchCompression {
+    /**
+     * Protects against batches that decompress into absurd sizes
+     */
+    static final int MAX_DECOMPRESSED_BYTES = 10 * 1024 * 1024;
+
+    private static final FastThreadLocal<Deflater> DEFLATER = new FastThreadLocal<>() {
+        @Override
+        protected Deflater initialValue() {
+            return new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+
+        @Override
+        protected void onRemoval(Deflater deflater) {
+            deflater.end();
+        }
+    };
+
+    private static final FastThreadLocal<Inflater> INFLATER = new FastThreadLocal<>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater(true);
+        }
+
+        @Override
+        protected void onRemoval(Inflater inflater) {
+            inflater.end();
+        }
+    };
+
+    private int level;
+
+    PooledZlibCompression(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public ByteBuf encode(ChannelHandlerContext ctx, ByteBuf msg) {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setLevel(level);
+        deflater.setInput(msg.nioBuffer());
+        deflater.finish();
+
+        // Most batches shrink considerably; the buffer grows if not
+        ByteBuf compressed = ctx.alloc().directBuffer(Math.max(64, msg.readableBytes() >> 1));
+        try {
+            while (!deflater.finished()) {
+                compressed.ensureWritable(8192);
+                ByteBuffer output = compressed.internalNioBuffer(compressed.writerIndex(), compressed.writableBytes());
+                compressed.writerIndex(compressed.writerIndex() + deflater.deflate(output));
+            }
+            return compressed;
+        } catch (Throwable t) {
+            compressed.release();
+            throw t;
+        }
+    }
+
+    @Override
+    public ByteBuf decode(ChannelHandlerContext ctx, ByteBuf msg) {
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(msg.nioBuffer());
+
+        ByteBuf decompressed = ctx.alloc().directBuffer(Math.max(256, msg.readableBytes() << 2));
+        try {
+            while (!inflater.finished()) {
+                if (!decompressed.isWritable()) {
+                    if (decompressed.capacity() >= MAX_DECOMPRESSED_BYTES) {
+                        throw new DecoderException("Decompressed batch is larger than " + MAX_DECOMPRESSED_BYTES + " bytes");
+                    }
+                    decompressed.ensureWritable(Math.min(decompressed.capacity(), MAX_DECOMPRESSED_BYTES - decompressed.capacity()));
+                }
+                ByteBuffer output = decompressed.internalNioBuffer(decompressed.writerIndex(), decompressed.writableBytes());
+                int written = inflater.inflate(output);
+                if (written == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DecoderException("Batch ended before its compressed data did");
+                }
+                decompressed.writerIndex(decompressed.writerIndex() + written);
+            }
+            return decompressed;
+        } catch (DataFormatException e) {
+            decompressed.release();
+            throw new DecoderException("Unable to inflate batch", e);
+        } catch (Throwable t) {
+            decompressed.release();
+            throw t;
+        }
+    }
+
+    @Override
+    public CompressionAlgorithm getAlgorithm() {
+        return PacketCompressionAlgorithm.ZLIB;
+    }
+
+    @Override
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public int getLevel() {
+        return level;
+    }
+}
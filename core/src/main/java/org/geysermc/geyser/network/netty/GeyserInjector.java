@@ -25,9 +25,13 @@
 
 package org.geysermc.geyser.network.netty;
 
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelPipeline;
 import lombok.Getter;
 import org.geysermc.geyser.GeyserBootstrap;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.network.netty.handler.PassthroughHandler;
 
 import java.net.SocketAddress;
 
@@ -36,6 +40,12 @@ import java.net.SocketAddress;
  * by creating a local channel.
  */
 public abstract class GeyserInjector {
+    /**
+     * The names of the handlers that read and add the length prefix of packets on the server's end.
+     */
+    private static final String SPLITTER = "splitter";
+    private static final String PREPENDER = "prepender";
+
     /**
      * The local channel we can use to inject ourselves into the server without creating a TCP connection.
      */
@@ -75,6 +85,41 @@ public abstract class GeyserInjector {
      */
     protected abstract void initializeLocalChannel0(GeyserBootstrap bootstrap) throws Exception;
 
+    /**
+     * Should be called on the server's end of every local channel, once the server has initialized it.
+     * <p>
+     * Both ends of a local channel pass every packet as its own message, so the length prefix is not needed. Skipping it
+     * saves copying every packet once in each direction. If enabled with the {@code Geyser.LocalSkipFraming} system
+     * property, and once a connection shows the server's frame handlers are where we expect them, sessions created
+     * from then on skip framing, and this removes it on the server's end too.
+     */
+    protected static void matchFraming(Channel channel) {
+        // Channel initializers are given the wrapper the pipeline was created with, not the local channel itself
+        Channel source = channel instanceof ChannelWrapper channelWrapper ? channelWrapper.source : channel;
+        if (!(source instanceof LocalChannelWrapper wrapper)) {
+            return;
+        }
+
+        ChannelPipeline pipeline = channel.pipeline();
+        boolean compatible = pipeline.get(SPLITTER) != null && pipeline.get(PREPENDER) != null;
+        if (wrapper.peerFramed()) {
+            LocalSession.skipFraming(compatible);
+            return;
+        }
+
+        if (!compatible) {
+            // A plugin changed the pipeline since we checked; the session has to reconnect with framing
+            GeyserImpl.getInstance().getLogger().debug("Frame handlers are missing from the server pipeline " + pipeline.names() + "; no longer skipping framing");
+            LocalSession.skipFraming(false);
+            channel.close();
+            return;
+        }
+
+        // Replaced instead of removed, as compression and encryption are added next to them by name
+        pipeline.replace(SPLITTER, SPLITTER, PassthroughHandler.INSTANCE);
+        pipeline.replace(PREPENDER, PREPENDER, PassthroughHandler.INSTANCE);
+    }
+
     public void shutdown() {
         if (localChannel != null && localChannel.channel().isOpen()) {
             try {
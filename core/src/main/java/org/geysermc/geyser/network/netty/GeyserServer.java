@@ -26,10 +26,15 @@
 package org.geysermc.geyser.network.netty;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
 import io.netty.channel.epoll.EpollDatagramChannel;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.kqueue.KQueue;
@@ -43,35 +48,43 @@ import io.netty.incubator.channel.uring.IOUringDatagramChannel;
 import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
 import io.netty.util.concurrent.Future;
 import lombok.Getter;
-import net.jodah.expiringmap.ExpirationPolicy;
-import net.jodah.expiringmap.ExpiringMap;
 import org.cloudburstmc.netty.channel.raknet.RakChannelFactory;
 import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
 import org.cloudburstmc.netty.handler.codec.raknet.server.RakServerOfflineHandler;
 import org.cloudburstmc.netty.handler.codec.raknet.server.RakServerRateLimiter;
 import org.cloudburstmc.protocol.bedrock.BedrockPong;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.api.event.connection.ConnectionRequestEvent;
+import org.geysermc.geyser.api.event.connection.GeyserBedrockPingEvent;
 import org.geysermc.geyser.command.defaults.ConnectionTestCommand;
 import org.geysermc.geyser.configuration.GeyserConfiguration;
 import org.geysermc.geyser.event.type.GeyserBedrockPingEventImpl;
-import org.geysermc.geyser.network.CIDRMatcher;
 import org.geysermc.geyser.network.GameProtocol;
 import org.geysermc.geyser.network.GeyserServerInitializer;
+import org.geysermc.geyser.network.netty.handler.ListenerStatisticsHandler;
 import org.geysermc.geyser.network.netty.handler.RakConnectionRequestHandler;
 import org.geysermc.geyser.network.netty.handler.RakGeyserRateLimiter;
 import org.geysermc.geyser.network.netty.handler.RakPingHandler;
+import org.geysermc.geyser.network.netty.proxy.ProxiedAddresses;
 import org.geysermc.geyser.network.netty.proxy.ProxyServerHandler;
 import org.geysermc.geyser.ping.GeyserPingInfo;
 import org.geysermc.geyser.ping.IGeyserPingPassthrough;
-import org.geysermc.geyser.skin.SkinProvider;
 import org.geysermc.geyser.text.GeyserLocale;
 import org.geysermc.geyser.translator.text.MessageTranslator;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
@@ -93,6 +106,11 @@ public final class GeyserServer {
      */
     private static final int MAGIC_RAKNET_LENGTH = 338;
 
+    /**
+     * The pong is no longer refreshed once nobody has pinged for this long.
+     */
+    private static final long PONG_IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
     private static final Transport TRANSPORT = compatibleTransport();
 
     /**
@@ -104,12 +122,16 @@ public final class GeyserServer {
     private final GeyserImpl geyser;
     private EventLoopGroup group;
     // Split childGroup may improve IO
-    private EventLoopGroup childGroup;
-    private final ServerBootstrap bootstrap;
+    // With listener thread affinity, every listener has its own group
+    private EventLoopGroup[] childGroups;
+    private final ServerBootstrap[] bootstraps;
     private EventLoopGroup playerGroup;
+    private final ListenerStatisticsHandler[] listenerStatistics;
+    private final List<RakGeyserRateLimiter> rateLimiters = new CopyOnWriteArrayList<>();
 
     @Getter
-    private final ExpiringMap<InetSocketAddress, InetSocketAddress> proxiedAddresses;
+    private final ProxiedAddresses proxiedAddresses;
+    private ScheduledFuture<?> proxiedAddressesExpireTask;
     private int listenCount;
 
     private ChannelFuture[] bootstrapFutures;
@@ -123,43 +145,81 @@ public final class GeyserServer {
      */
     private final int broadcastPort;
 
+    private volatile PongInfo pongInfo;
+    private volatile @Nullable InetSocketAddress lastPingAddress;
+    private volatile long lastPingTime = System.nanoTime() - PONG_IDLE_NANOS - 1;
+    private ScheduledFuture<?> pongRefreshTask;
+
     public GeyserServer(GeyserImpl geyser, int threadCount) {
         this.geyser = geyser;
-        this.listenCount = Bootstraps.isReusePortAvailable() ?  Integer.getInteger("Geyser.ListenCount", 2) : 1;
+        int configuredListenCount = geyser.getConfig().getListenerCount();
+        if (configuredListenCount < 1) {
+            configuredListenCount = Integer.getInteger("Geyser.ListenCount", 2);
+        }
+        this.listenCount = Bootstraps.isReusePortAvailable() ? configuredListenCount : 1;
         GeyserImpl.getInstance().getLogger().debug("Listen thread count: " + listenCount);
         this.group = TRANSPORT.eventLoopGroupFactory().apply(listenCount);
-        this.childGroup = TRANSPORT.eventLoopGroupFactory().apply(threadCount);
 
-        this.bootstrap = this.createBootstrap();
+        GeyserServerInitializer serverInitializer = new GeyserServerInitializer(this.geyser);
+        this.playerGroup = serverInitializer.getEventLoopGroup();
+
+        if (geyser.getConfig().isListenerThreadAffinity() && listenCount > 1) {
+            // Connections are then handled next to the socket they arrived on, instead of on any thread
+            this.childGroups = new EventLoopGroup[listenCount];
+            for (int i = 0; i < listenCount; i++) {
+                this.childGroups[i] = TRANSPORT.eventLoopGroupFactory().apply(Math.max(1, threadCount / listenCount));
+            }
+        } else {
+            this.childGroups = new EventLoopGroup[] {TRANSPORT.eventLoopGroupFactory().apply(threadCount)};
+        }
+
+        this.bootstraps = new ServerBootstrap[listenCount];
+        for (int i = 0; i < listenCount; i++) {
+            this.bootstraps[i] = this.createBootstrap(serverInitializer, this.childGroups[i % this.childGroups.length]);
+        }
         // setup SO_REUSEPORT if exists - or, if the option does not actually exist, reset listen count
         // otherwise, we try to bind multiple times which wont work if so_reuseport is not valid
-        if (!Bootstraps.setupBootstrap(this.bootstrap)) {
-            this.listenCount = 1;
+        for (ServerBootstrap bootstrap : this.bootstraps) {
+            if (!Bootstraps.setupBootstrap(bootstrap)) {
+                this.listenCount = 1;
+                break;
+            }
         }
 
+        this.listenerStatistics = new ListenerStatisticsHandler[listenCount];
+
         if (this.geyser.getConfig().getBedrock().isEnableProxyProtocol()) {
-            this.proxiedAddresses = ExpiringMap.builder()
-                    .expiration(30 + 1, TimeUnit.MINUTES)
-                    .expirationPolicy(ExpirationPolicy.ACCESSED).build();
+            this.proxiedAddresses = new ProxiedAddresses();
+            this.proxiedAddressesExpireTask = geyser.getScheduledThread().scheduleAtFixedRate(this.proxiedAddresses::expire, 1, 1, TimeUnit.MINUTES);
+            // Fetch and compile the whitelist now instead of during the first connection request
+            geyser.getConfig().getBedrock().getWhitelistedIPsMatcher();
         } else {
             this.proxiedAddresses = null;
         }
 
         this.broadcastPort = geyser.getConfig().getBedrock().broadcastPort();
+
+        // Answers pings with the configured MOTD until the ping passthrough was queried
+        this.pongInfo = createPongInfo(null);
+        // Nobody has pinged yet, so the loopback address stands in for whoever pings first
+        geyser.getScheduledThread().execute(() -> updatePong(new InetSocketAddress(InetAddress.getLoopbackAddress(), this.broadcastPort)));
+        int pongRefreshInterval = Math.max(1, geyser.getConfig().getPingPassthroughInterval());
+        this.pongRefreshTask = geyser.getScheduledThread().scheduleAtFixedRate(this::refreshPong, pongRefreshInterval, pongRefreshInterval, TimeUnit.SECONDS);
     }
 
     public CompletableFuture<Void> bind(InetSocketAddress address) {
         bootstrapFutures = new ChannelFuture[listenCount];
         for (int i = 0; i < listenCount; i++) {
-            ChannelFuture future = bootstrap.bind(address);
-            modifyHandlers(future);
+            ChannelFuture future = bootstraps[i].bind(address);
+            listenerStatistics[i] = new ListenerStatisticsHandler();
+            modifyHandlers(future, listenerStatistics[i]);
             bootstrapFutures[i] = future;
         }
 
         return Bootstraps.allOf(bootstrapFutures);
     }
 
-    private void modifyHandlers(ChannelFuture future) {
+    private void modifyHandlers(ChannelFuture future, ListenerStatisticsHandler statisticsHandler) {
         Channel channel = future.channel();
         // Add our ping handler
         channel.pipeline()
@@ -178,24 +238,63 @@ public final class GeyserServer {
             channel.pipeline().remove(RakServerRateLimiter.NAME);
         } else {
             // Use our own rate limiter to allow multiple players from the same IP
-            channel.pipeline().replace(RakServerRateLimiter.NAME, RakGeyserRateLimiter.NAME, new RakGeyserRateLimiter(channel));
+            RakGeyserRateLimiter rateLimiter = new RakGeyserRateLimiter(channel);
+            channel.pipeline().replace(RakServerRateLimiter.NAME, RakGeyserRateLimiter.NAME, rateLimiter);
+            this.rateLimiters.add(rateLimiter);
+        }
+
+        // First, so every datagram is counted
+        channel.pipeline().addFirst(ListenerStatisticsHandler.NAME, statisticsHandler);
+    }
+
+    /**
+     * @return the traffic of every listener, in the order they were bound
+     */
+    public List<ListenerStatisticsHandler.ListenerStatistics> getListenerStatistics() {
+        List<ListenerStatisticsHandler.ListenerStatistics> statistics = new ArrayList<>(listenerStatistics.length);
+        for (ListenerStatisticsHandler handler : listenerStatistics) {
+            if (handler != null) {
+                statistics.add(handler.statistics());
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * @return the packets dropped by the rate limiters per network prefix, most first, for prefixes that sent packets
+     * recently. The prefixes themselves are left out, since they identify players.
+     */
+    public List<Long> getRateLimitRejections() {
+        Map<String, Long> rejections = new HashMap<>();
+        for (RakGeyserRateLimiter rateLimiter : this.rateLimiters) {
+            rateLimiter.addRejectedPackets(rejections);
         }
+        List<Long> counts = new ArrayList<>(rejections.values());
+        counts.sort(Comparator.reverseOrder());
+        return counts;
     }
 
     public void shutdown() {
+        this.pongRefreshTask.cancel(false);
+        if (this.proxiedAddressesExpireTask != null) {
+            this.proxiedAddressesExpireTask.cancel(false);
+        }
         try {
-            Future<?> futureChildGroup = this.childGroup.shutdownGracefully(SHUTDOWN_QUIET_PERIOD_MS, SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-            this.childGroup = null;
+            Future<?>[] futureChildGroups = new Future<?>[this.childGroups.length];
+            for (int i = 0; i < this.childGroups.length; i++) {
+                futureChildGroups[i] = this.childGroups[i].shutdownGracefully(SHUTDOWN_QUIET_PERIOD_MS, SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            }
+            this.childGroups = null;
             Future<?> futureGroup = this.group.shutdownGracefully(SHUTDOWN_QUIET_PERIOD_MS, SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
             this.group = null;
             Future<?> futurePlayerGroup = this.playerGroup.shutdownGracefully(SHUTDOWN_QUIET_PERIOD_MS, SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
             this.playerGroup = null;
 
-            futureChildGroup.sync();
+            for (Future<?> futureChildGroup : futureChildGroups) {
+                futureChildGroup.sync();
+            }
             futureGroup.sync();
             futurePlayerGroup.sync();
-
-            SkinProvider.shutdown();
         } catch (InterruptedException e) {
             GeyserImpl.getInstance().getLogger().severe("Exception in shutdown process", e);
         }
@@ -204,7 +303,7 @@ public final class GeyserServer {
         }
     }
 
-    private ServerBootstrap createBootstrap() {
+    private ServerBootstrap createBootstrap(GeyserServerInitializer serverInitializer, EventLoopGroup childGroup) {
         if (this.geyser.getConfig().isDebugMode()) {
             this.geyser.getLogger().debug("EventLoop type: " + TRANSPORT.datagramChannel());
             if (TRANSPORT.datagramChannel() == NioDatagramChannel.class) {
@@ -218,8 +317,6 @@ public final class GeyserServer {
             }
         }
 
-        GeyserServerInitializer serverInitializer = new GeyserServerInitializer(this.geyser);
-        playerGroup = serverInitializer.getEventLoopGroup();
         this.geyser.getLogger().debug("Setting MTU to " + this.geyser.getConfig().getMtu());
 
         int rakPacketLimit = positivePropOrDefault("Geyser.RakPacketLimit", DEFAULT_PACKET_LIMIT);
@@ -231,7 +328,7 @@ public final class GeyserServer {
         boolean rakSendCookie = Boolean.parseBoolean(System.getProperty("Geyser.RakSendCookie", "true"));
         this.geyser.getLogger().debug("Setting RakNet send cookie to " + rakSendCookie);
 
-        return new ServerBootstrap()
+        ServerBootstrap bootstrap = new ServerBootstrap()
                 .channelFactory(RakChannelFactory.server(TRANSPORT.datagramChannel()))
                 .group(group, childGroup)
                 .option(RakChannelOption.RAK_HANDLE_PING, true)
@@ -240,20 +337,44 @@ public final class GeyserServer {
                 .option(RakChannelOption.RAK_GLOBAL_PACKET_LIMIT, rakGlobalPacketLimit)
                 .option(RakChannelOption.RAK_SEND_COOKIE, rakSendCookie)
                 .childHandler(serverInitializer);
+        applySocketOptions(bootstrap);
+        return bootstrap;
+    }
+
+    private void applySocketOptions(ServerBootstrap bootstrap) {
+        GeyserConfiguration config = this.geyser.getConfig();
+        if (config.getListenerReceiveBufferSize() > 0) {
+            this.geyser.getLogger().debug("Setting socket receive buffer size to " + config.getListenerReceiveBufferSize());
+            bootstrap.option(ChannelOption.SO_RCVBUF, config.getListenerReceiveBufferSize());
+        }
+        if (config.getListenerSendBufferSize() > 0) {
+            this.geyser.getLogger().debug("Setting socket send buffer size to " + config.getListenerSendBufferSize());
+            bootstrap.option(ChannelOption.SO_SNDBUF, config.getListenerSendBufferSize());
+        }
+
+        boolean epoll = TRANSPORT.epoll();
+        if (config.getListenerBusyPoll() > 0) {
+            if (epoll) {
+                this.geyser.getLogger().debug("Setting busy poll to " + config.getListenerBusyPoll() + " microseconds");
+                bootstrap.option(EpollChannelOption.SO_BUSY_POLL, config.getListenerBusyPoll());
+            } else {
+                this.geyser.getLogger().debug("Busy polling is only supported with Epoll; ignoring");
+            }
+        }
+        if (config.isListenerUdpGro()) {
+            if (epoll) {
+                this.geyser.getLogger().debug("Enabling UDP GRO");
+                bootstrap.option(EpollChannelOption.UDP_GRO, true);
+            } else {
+                this.geyser.getLogger().debug("UDP GRO is only supported with Epoll; ignoring");
+            }
+        }
     }
 
     public boolean onConnectionRequest(InetSocketAddress inetSocketAddress) {
         List<String> allowedProxyIPs = geyser.getConfig().getBedrock().getProxyProtocolWhitelistedIPs();
         if (geyser.getConfig().getBedrock().isEnableProxyProtocol() && !allowedProxyIPs.isEmpty()) {
-            boolean isWhitelistedIP = false;
-            for (CIDRMatcher matcher : geyser.getConfig().getBedrock().getWhitelistedIPsMatchers()) {
-                if (matcher.matches(inetSocketAddress.getAddress())) {
-                    isWhitelistedIP = true;
-                    break;
-                }
-            }
-
-            if (!isWhitelistedIP) {
+            if (!geyser.getConfig().getBedrock().getWhitelistedIPsMatcher().matches(inetSocketAddress.getAddress())) {
                 connectionAttempts++;
                 return false;
             }
@@ -286,7 +407,11 @@ public final class GeyserServer {
         return true;
     }
 
-    public BedrockPong onQuery(Channel channel, InetSocketAddress inetSocketAddress) {
+    /**
+     * Answers an unconnected ping. Unless the ping event is listened to, the serialized pong is reused between pings;
+     * it is kept up-to-date by {@link #refreshPong()} so no ping has to wait on the ping passthrough.
+     */
+    public ByteBuf onQuery(Channel channel, InetSocketAddress inetSocketAddress) {
         if (geyser.getConfig().isDebugMode() && PRINT_DEBUG_PINGS) {
             String ip;
             if (geyser.getConfig().isLogPlayerIpAddresses()) {
@@ -301,17 +426,37 @@ public final class GeyserServer {
             geyser.getLogger().debug(GeyserLocale.getLocaleStringLog("geyser.network.pinged", ip));
         }
 
-        GeyserConfiguration config = geyser.getConfig();
+        long now = System.nanoTime();
+        boolean wasIdle = now - this.lastPingTime > PONG_IDLE_NANOS;
+        this.lastPingAddress = inetSocketAddress;
+        this.lastPingTime = now;
+        if (wasIdle) {
+            // The cached pong has not been refreshed while nobody was pinging
+            this.geyser.getScheduledThread().execute(this::refreshPong);
+        }
 
-        GeyserPingInfo pingInfo = null;
-        if (config.isPassthroughMotd() || config.isPassthroughPlayerCounts()) {
-            IGeyserPingPassthrough pingPassthrough = geyser.getBootstrap().getGeyserPingPassthrough();
-            if (pingPassthrough != null) {
-                pingInfo = pingPassthrough.getPingInformation(inetSocketAddress);
-            }
+        long serverId = channel.config().getOption(RakChannelOption.RAK_GUID);
+        PongInfo pongInfo = this.pongInfo;
+        if (ConnectionTestCommand.CONNECTION_TEST_MOTD != null || !this.geyser.eventBus().subscribers(GeyserBedrockPingEvent.class).isEmpty()) {
+            // The pong may differ per ping, so it cannot be reused
+            BedrockPong pong = createPong(pongInfo, serverId);
+            this.geyser.eventBus().fire(new GeyserBedrockPingEventImpl(pong, inetSocketAddress));
+            return sanitizePong(pong).toByteBuf();
         }
 
-        BedrockPong pong = new BedrockPong()
+        byte[] serialized = pongInfo.serialized().computeIfAbsent(serverId, id -> {
+            ByteBuf buf = sanitizePong(createPong(pongInfo, id)).toByteBuf();
+            try {
+                return ByteBufUtil.getBytes(buf);
+            } finally {
+                buf.release();
+            }
+        });
+        return Unpooled.wrappedBuffer(serialized);
+    }
+
+    private BedrockPong createPong(PongInfo pongInfo, long serverId) {
+        return new BedrockPong()
                 .edition("MCPE")
                 .gameType("Survival") // Can only be Survival or Creative as of 1.16.210.59
                 .nintendoLimited(false)
@@ -319,34 +464,87 @@ public final class GeyserServer {
                 .version(PING_VERSION)
                 .ipv4Port(this.broadcastPort)
                 .ipv6Port(this.broadcastPort)
-                .serverId(channel.config().getOption(RakChannelOption.RAK_GUID));
+                .serverId(serverId)
+                .motd(pongInfo.motd())
+                .subMotd(pongInfo.subMotd())
+                .playerCount(pongInfo.playerCount())
+                .maximumPlayerCount(pongInfo.maximumPlayerCount());
+    }
 
+    /**
+     * Recomputes the MOTD and player counts of the pong. Runs on the scheduled thread, since the ping passthrough
+     * may have to query the Java server.
+     */
+    private void refreshPong() {
+        InetSocketAddress address = this.lastPingAddress;
+        if (address == null || System.nanoTime() - this.lastPingTime > PONG_IDLE_NANOS) {
+            // Nobody is looking at the server list, so don't bother the Java server
+            return;
+        }
+        updatePong(address);
+    }
+
+    private void updatePong(InetSocketAddress address) {
+        try {
+            this.pongInfo = createPongInfo(address);
+        } catch (Throwable t) {
+            // Keep the old pong; an exception would also cancel any further refreshes
+            this.geyser.getLogger().error("Error while refreshing the Bedrock pong", t);
+        }
+    }
+
+    /**
+     * @param address the address passed to the ping passthrough, or null to not use the ping passthrough
+     */
+    private PongInfo createPongInfo(@Nullable InetSocketAddress address) {
+        GeyserConfiguration config = geyser.getConfig();
+
+        GeyserPingInfo pingInfo = null;
+        if (address != null && (config.isPassthroughMotd() || config.isPassthroughPlayerCounts())) {
+            IGeyserPingPassthrough pingPassthrough = geyser.getBootstrap().getGeyserPingPassthrough();
+            if (pingPassthrough != null) {
+                pingInfo = pingPassthrough.getPingInformation(address);
+            }
+        }
+
+        String mainMotd;
+        String subMotd;
         if (config.isPassthroughMotd() && pingInfo != null && pingInfo.getDescription() != null) {
             String[] motd = MessageTranslator.convertMessageLenient(pingInfo.getDescription()).split("\n");
-            String mainMotd = (motd.length > 0) ? motd[0] : config.getBedrock().primaryMotd(); // First line of the motd.
-            String subMotd = (motd.length > 1) ? motd[1] : config.getBedrock().secondaryMotd(); // Second line of the motd if present, otherwise default.
+            mainMotd = (motd.length > 0) ? motd[0] : config.getBedrock().primaryMotd(); // First line of the motd.
+            subMotd = (motd.length > 1) ? motd[1] : config.getBedrock().secondaryMotd(); // Second line of the motd if present, otherwise default.
 
-            pong.motd(mainMotd.trim());
-            pong.subMotd(subMotd.trim()); // Trimmed to shift it to the left, prevents the universe from collapsing on us just because we went 2 characters over the text box's limit.
+            mainMotd = mainMotd.trim();
+            subMotd = subMotd.trim(); // Trimmed to shift it to the left, prevents the universe from collapsing on us just because we went 2 characters over the text box's limit.
         } else {
-            pong.motd(config.getBedrock().primaryMotd());
-            pong.subMotd(config.getBedrock().secondaryMotd());
+            mainMotd = config.getBedrock().primaryMotd();
+            subMotd = config.getBedrock().secondaryMotd();
         }
 
-        // Placed here to prevent overriding values set in the ping event.
+        int playerCount;
+        int maximumPlayerCount;
         if (config.isPassthroughPlayerCounts() && pingInfo != null) {
-            pong.playerCount(pingInfo.getPlayers().getOnline());
-            pong.maximumPlayerCount(pingInfo.getPlayers().getMax());
+            playerCount = pingInfo.getPlayers().getOnline();
+            maximumPlayerCount = pingInfo.getPlayers().getMax();
         } else {
-            pong.playerCount(geyser.getSessionManager().getSessions().size());
-            pong.maximumPlayerCount(config.getMaxPlayers());
+            playerCount = geyser.getSessionManager().getSessions().size();
+            maximumPlayerCount = config.getMaxPlayers();
         }
 
-        this.geyser.eventBus().fire(new GeyserBedrockPingEventImpl(pong, inetSocketAddress));
+        return new PongInfo(mainMotd, subMotd, playerCount, maximumPlayerCount, new ConcurrentHashMap<>());
+    }
 
+    /**
+     * Ensures the pong can be shown by the Bedrock client. Called after the ping event to prevent overriding values set in it.
+     */
+    private static BedrockPong sanitizePong(BedrockPong pong) {
         // https://github.com/GeyserMC/Geyser/issues/3388
-        pong.motd(pong.motd().replace(';', ':'));
-        pong.subMotd(pong.subMotd().replace(';', ':'));
+        if (pong.motd() != null) {
+            pong.motd(pong.motd().replace(';', ':'));
+        }
+        if (pong.subMotd() != null) {
+            pong.subMotd(pong.subMotd().replace(';', ':'));
+        }
 
         // Fallbacks to prevent errors and allow Bedrock to see the server
         if (pong.motd() == null || pong.motd().isBlank()) {
@@ -437,21 +635,29 @@ public final class GeyserServer {
         if (isClassAvailable("io.netty.incubator.channel.uring.IOUring")
                 && IOUring.isAvailable()
                 && Boolean.parseBoolean(System.getProperty("Geyser.io_uring"))) {
-            return new Transport(IOUringDatagramChannel.class, IOUringEventLoopGroup::new);
+            return new Transport(IOUringDatagramChannel.class, IOUringEventLoopGroup::new, false);
         }
 
         if (isClassAvailable("io.netty.channel.epoll.Epoll") && Epoll.isAvailable()) {
-            return new Transport(EpollDatagramChannel.class, EpollEventLoopGroup::new);
+            return new Transport(EpollDatagramChannel.class, EpollEventLoopGroup::new, true);
         }
 
         if (isClassAvailable("io.netty.channel.kqueue.KQueue") && KQueue.isAvailable()) {
-            return new Transport(KQueueDatagramChannel.class, KQueueEventLoopGroup::new);
+            return new Transport(KQueueDatagramChannel.class, KQueueEventLoopGroup::new, false);
         }
 
-        return new Transport(NioDatagramChannel.class, NioEventLoopGroup::new);
+        return new Transport(NioDatagramChannel.class, NioEventLoopGroup::new, false);
+    }
+
+    /**
+     * The parts of the pong that do not depend on who is pinging.
+     *
+     * @param serialized the sanitized pong, serialized, for each RakNet server ID
+     */
+    private record PongInfo(String motd, String subMotd, int playerCount, int maximumPlayerCount, Map<Long, byte[]> serialized) {
     }
 
-    private record Transport(Class<? extends DatagramChannel> datagramChannel, IntFunction<EventLoopGroup> eventLoopGroupFactory) {
+    private record Transport(Class<? extends DatagramChannel> datagramChannel, IntFunction<EventLoopGroup> eventLoopGroupFactory, boolean epoll) {
     }
 
     /**
@@ -35,6 +35,7 @@ import java.net.SocketAddress;
  */
 public class LocalChannelWithRemoteAddress extends LocalChannel {
     private SocketAddress spoofedAddress;
+    private boolean framed = true;
 
     public SocketAddress spoofedRemoteAddress() {
         return spoofedAddress;
@@ -43,4 +44,15 @@ public class LocalChannelWithRemoteAddress extends LocalChannel {
     public void spoofedRemoteAddress(SocketAddress socketAddress) {
         this.spoofedAddress = socketAddress;
     }
+
+    /**
+     * @return whether packets are sent with a length prefix
+     */
+    public boolean framed() {
+        return framed;
+    }
+
+    public void framed(boolean framed) {
+        this.framed = framed;
+    }
 }
@@ -40,6 +40,7 @@ public class LocalChannelWrapper extends LocalChannel {
      * {@link #newChannelPipeline()} is called during super, so this exists until the wrapper can be initialized.
      */
     private volatile ChannelWrapper tempWrapper;
+    private boolean peerFramed = true;
 
     public LocalChannelWrapper(LocalServerChannel parent, LocalChannel peer) {
         super(parent, peer);
@@ -51,6 +52,17 @@ public class LocalChannelWrapper extends LocalChannel {
         return wrapper;
     }
 
+    /**
+     * @return whether the other end sends and expects packets with a length prefix
+     */
+    public boolean peerFramed() {
+        return peerFramed;
+    }
+
+    public void peerFramed(boolean peerFramed) {
+        this.peerFramed = peerFramed;
+    }
+
     @Override
     protected DefaultChannelPipeline newChannelPipeline() {
         if (wrapper != null) {
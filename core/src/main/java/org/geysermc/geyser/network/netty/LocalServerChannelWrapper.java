@@ -39,6 +39,7 @@ public class LocalServerChannelWrapper extends LocalServerChannel {
         if (peer instanceof LocalChannelWithRemoteAddress) {
             LocalChannelWrapper channel = new LocalChannelWrapper(this, peer);
             channel.wrapper().remoteAddress(((LocalChannelWithRemoteAddress) peer).spoofedRemoteAddress());
+            channel.peerFramed(((LocalChannelWithRemoteAddress) peer).framed());
             return channel;
         }
         return super.newLocalChannel(peer);
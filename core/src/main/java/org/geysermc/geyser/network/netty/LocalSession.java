@@ -32,11 +32,15 @@ import io.netty.channel.ChannelFactory;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ReflectiveChannelFactory;
 import io.netty.channel.unix.PreferredDirectByteBufAllocator;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.network.netty.handler.PassthroughHandler;
 import org.geysermc.mcprotocollib.network.helper.NettyHelper;
 import org.geysermc.mcprotocollib.network.netty.MinecraftChannelInitializer;
 import org.geysermc.mcprotocollib.network.packet.PacketProtocol;
@@ -54,12 +58,30 @@ import java.util.concurrent.TimeUnit;
 public final class LocalSession extends ClientNetworkSession {
     private static DefaultEventLoopGroup DEFAULT_EVENT_LOOP_GROUP;
     private static PreferredDirectByteBufAllocator PREFERRED_DIRECT_BYTE_BUF_ALLOCATOR = null;
+    /**
+     * Skipping framing relies on the names of the server's frame handlers, so it has to be enabled with this property.
+     */
+    static final String SKIP_FRAMING_PROPERTY = "Geyser.LocalSkipFraming";
+    /**
+     * Whether new sessions send packets without a length prefix. See {@link GeyserInjector#matchFraming(Channel)}.
+     */
+    private static volatile boolean SKIP_FRAMING = false;
+    /**
+     * The name of the handler that adds and reads the length prefix.
+     */
+    private static final String SIZER = "sizer";
 
     private final SocketAddress spoofedRemoteAddress;
+    /**
+     * The event loop the channel is registered to with session thread affinity, so packets are handled without
+     * being passed to another thread.
+     */
+    private final @Nullable EventLoop eventLoop;
 
     public LocalSession(SocketAddress targetAddress, String clientIp, MinecraftProtocol protocol, Executor packetHandlerExecutor) {
         super(targetAddress, protocol, packetHandlerExecutor, null, null);
         this.spoofedRemoteAddress = new InetSocketAddress(clientIp, 0);
+        this.eventLoop = packetHandlerExecutor instanceof EventLoop loop && GeyserImpl.getInstance().getConfig().isSessionThreadAffinity() ? loop : null;
     }
 
     @Override
@@ -76,6 +98,10 @@ public final class LocalSession extends ClientNetworkSession {
 
     @Override
     protected EventLoopGroup getEventLoopGroup() {
+        if (this.eventLoop != null) {
+            return this.eventLoop;
+        }
+
         if (DEFAULT_EVENT_LOOP_GROUP == null) {
             DEFAULT_EVENT_LOOP_GROUP = new DefaultEventLoopGroup(new DefaultThreadFactory(this.getClass(), true));
             Runtime.getRuntime().addShutdownHook(new Thread(
@@ -100,10 +126,29 @@ public final class LocalSession extends ClientNetworkSession {
                 NettyHelper.initializeHAProxySupport(LocalSession.this, channel);
 
                 super.initChannel(channel);
+
+                if (SKIP_FRAMING && channel.pipeline().get(SIZER) != null) {
+                    // Every packet is already passed as its own message; the server's end is told in LocalServerChannelWrapper
+                    channel.pipeline().replace(SIZER, SIZER, PassthroughHandler.INSTANCE);
+                    ((LocalChannelWithRemoteAddress) channel).framed(false);
+                }
             }
         };
     }
 
+    /**
+     * Should only be called by injectors that call {@link GeyserInjector#matchFraming(Channel)} on the server's end.
+     *
+     * @param skipFraming whether sessions created from now on should skip adding and reading the length prefix of packets
+     */
+    static void skipFraming(boolean skipFraming) {
+        SKIP_FRAMING = skipFraming && Boolean.getBoolean(SKIP_FRAMING_PROPERTY);
+    }
+
+    static boolean isSkippingFraming() {
+        return SKIP_FRAMING;
+    }
+
     /**
      * Should only be called when direct ByteBufs should be preferred. At this moment, this should only be called on BungeeCord.
      */
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network.netty.handler;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets per network prefix, refilled continuously so a limit of n packets allows n packets every window.
+ * Only used from the event loop of one listener, and does not allocate unless it has to grow.
+ */
+final class AddressTokenBuckets {
+    /**
+     * Tokens are counted in thousandths, so slow refills aren't rounded away.
+     */
+    private static final long TOKEN = 1000;
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * A bucket is forgotten once it has been unused for this long.
+     */
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int MAX_CAPACITY = 1 << 16;
+
+    /**
+     * Every entry takes up the high key, the low key, the tokens, the last refill and the rejected packets.
+     */
+    private static final int ENTRY_SIZE = 5;
+    private static final int HIGH = 0, LOW = 1, TOKENS = 2, LAST_REFILL = 3, REJECTED = 4;
+
+    /**
+     * Open addressing with linear probing; a last refill of zero marks an empty entry.
+     */
+    private long[] entries = new long[256 * ENTRY_SIZE];
+    private int size;
+    /**
+     * Until when no more prefixes can be tracked, so a flood of new prefixes doesn't rehash on every packet.
+     */
+    private long fullUntil;
+    private final long windowNanos;
+
+    /**
+     * @param windowNanos the time in which a bucket refills completely; a multiple of a microsecond
+     */
+    AddressTokenBuckets(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    /**
+     * @return whether the packet is allowed
+     */
+    boolean tryAcquire(long high, long low, int limit, long now) {
+        // Never zero, as that marks an empty entry
+        now |= 1;
+
+        int offset = findOrInsert(high, low, now);
+        if (offset < 0) {
+            // Cannot track any more prefixes right now
+            return true;
+        }
+
+        long[] entries = this.entries;
+        long elapsed = Math.min(now - entries[offset + LAST_REFILL], this.windowNanos);
+        long capacity = limit * TOKEN;
+        entries[offset + TOKENS] = Math.min(capacity, entries[offset + TOKENS] + elapsed * limit / (this.windowNanos / TOKEN));
+        entries[offset + LAST_REFILL] = now;
+
+        if (entries[offset + TOKENS] >= TOKEN) {
+            entries[offset + TOKENS] -= TOKEN;
+            return true;
+        }
+        entries[offset + REJECTED]++;
+        return false;
+    }
+
+    /**
+     * Reads the rejected packets of every tracked prefix. Called from other threads, so the counts are approximate.
+     */
+    void forEachRejected(RejectedConsumer consumer) {
+        long[] entries = this.entries;
+        for (int offset = 0; offset < entries.length; offset += ENTRY_SIZE) {
+            long rejected = entries[offset + REJECTED];
+            if (entries[offset + LAST_REFILL] != 0 && rejected > 0) {
+                consumer.accept(entries[offset + HIGH], entries[offset + LOW], rejected);
+            }
+        }
+    }
+
+    private int findOrInsert(long high, long low, long now) {
+        int offset = find(this.entries, high, low);
+        if (this.entries[offset + LAST_REFILL] != 0) {
+            return offset;
+        }
+
+        int capacity = this.entries.length / ENTRY_SIZE;
+        if ((this.size + 1) * 4 > capacity * 3) {
+            if (this.fullUntil != 0 && now - this.fullUntil < 0) {
+                return -1;
+            }
+            // Drop idle buckets first; they would be full again anyway
+            rehash(capacity, now, IDLE_NANOS);
+            if ((this.size + 1) * 4 > capacity * 3) {
+                if (capacity < MAX_CAPACITY) {
+                    rehash(capacity * 2, now, IDLE_NANOS);
+                } else {
+                    rehash(capacity, now, SECOND_NANOS);
+                    if ((this.size + 1) * 4 > capacity * 3) {
+                        this.fullUntil = now + SECOND_NANOS;
+                        return -1;
+                    }
+                }
+            }
+            offset = find(this.entries, high, low);
+        }
+
+        long[] entries = this.entries;
+        entries[offset + HIGH] = high;
+        entries[offset + LOW] = low;
+        entries[offset + TOKENS] = Long.MAX_VALUE / 2; // Clamped to the limit on the first refill
+        entries[offset + LAST_REFILL] = now;
+        entries[offset + REJECTED] = 0;
+        this.size++;
+        return offset;
+    }
+
+    private void rehash(int capacity, long now, long idleNanos) {
+        long[] entries = this.entries;
+        long[] rehashed = new long[capacity * ENTRY_SIZE];
+        int size = 0;
+        for (int offset = 0; offset < entries.length; offset += ENTRY_SIZE) {
+            long lastRefill = entries[offset + LAST_REFILL];
+            if (lastRefill == 0 || now - lastRefill > idleNanos) {
+                continue;
+            }
+            System.arraycopy(entries, offset, rehashed, find(rehashed, entries[offset + HIGH], entries[offset + LOW]), ENTRY_SIZE);
+            size++;
+        }
+        this.entries = rehashed;
+        this.size = size;
+    }
+
+    /**
+     * @return the offset of the entry with the key, or of the empty entry where it belongs
+     */
+    private static int find(long[] entries, long high, long low) {
+        int mask = entries.length / ENTRY_SIZE - 1;
+        int index = (int) HashCommon.mix(high * 0x9E3779B97F4A7C15L + low) & mask;
+        while (true) {
+            int offset = index * ENTRY_SIZE;
+            if (entries[offset + LAST_REFILL] == 0 || (entries[offset + HIGH] == high && entries[offset + LOW] == low)) {
+                return offset;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    @FunctionalInterface
+    interface RejectedConsumer {
+        void accept(long high, long low, long rejected);
+    }
+}
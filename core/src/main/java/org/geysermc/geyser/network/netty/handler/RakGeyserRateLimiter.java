@@ -26,24 +26,69 @@
 package org.geysermc.geyser.network.netty.handler;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.socket.DatagramPacket;
 import org.cloudburstmc.netty.channel.raknet.RakServerChannel;
 import org.cloudburstmc.netty.handler.codec.raknet.server.RakServerRateLimiter;
 import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.network.AddressPrefix;
 import org.geysermc.geyser.session.SessionManager;
 
+import java.net.Inet4Address;
 import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class RakGeyserRateLimiter extends RakServerRateLimiter {
     public static final String NAME = "rak-geyser-rate-limiter";
+    /**
+     * The RakNet limiter counts packets per RakNet tick, so the packet limit is per this window as well.
+     */
+    private static final long RAK_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
     private final SessionManager sessionManager;
+    private final int ipv4Prefix;
+    private final int ipv6Prefix;
+    private final AddressTokenBuckets buckets = new AddressTokenBuckets(RAK_TICK_NANOS);
+    /**
+     * Only used on the event loop of the channel.
+     */
+    private final long[] key = new long[2];
 
     public RakGeyserRateLimiter(Channel channel) {
         super((RakServerChannel) channel);
         this.sessionManager = GeyserImpl.getInstance().getSessionManager();
+        GeyserConfiguration config = GeyserImpl.getInstance().getConfig();
+        this.ipv4Prefix = config.getRateLimitIpv4Prefix();
+        this.ipv6Prefix = config.getRateLimitIpv6Prefix();
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) throws Exception {
+        InetAddress address = packet.sender().getAddress();
+        // Each address is already limited by RakNet; the bucket is shared by the whole prefix, so spreading packets
+        // over many addresses of one network doesn't raise the limit
+        if (address instanceof Inet4Address ? this.ipv4Prefix < 32 : this.ipv6Prefix < 128) {
+            int limit = getAddressMaxPacketCount(address);
+            if (!this.buckets.tryAcquire(this.key[0], this.key[1], limit, System.nanoTime())) {
+                return;
+            }
+        }
+        super.channelRead0(ctx, packet);
     }
 
     @Override
     protected int getAddressMaxPacketCount(InetAddress address) {
-        return super.getAddressMaxPacketCount(address) * sessionManager.getAddressMultiplier(address);
+        AddressPrefix.write(address, this.ipv4Prefix, this.ipv6Prefix, this.key);
+        return super.getAddressMaxPacketCount(address) * this.sessionManager.getAddressMultiplier(this.key[0], this.key[1]);
+    }
+
+    /**
+     * Adds the packets rejected per network prefix, for prefixes that sent packets recently.
+     */
+    public void addRejectedPackets(Map<String, Long> rejected) {
+        this.buckets.forEachRejected((high, low, count) ->
+            rejected.merge(AddressPrefix.toString(high, low, this.ipv4Prefix, this.ipv6Prefix), count, Long::sum));
     }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network.netty.proxy;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The addresses received in PROXY headers, per address of the proxy that sent them. Looked up for every datagram,
+ * so lookups do not lock or allocate; entries that haven't been looked up for a while are removed by {@link #expire()}.
+ */
+public final class ProxiedAddresses {
+    private static final long EXPIRE_NANOS = TimeUnit.MINUTES.toNanos(30 + 1);
+    /**
+     * Access times are only updated once they are this old, so lookups rarely write to shared memory.
+     */
+    private static final long ACCESS_GRANULARITY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<InetSocketAddress, Entry> entries = new ConcurrentHashMap<>();
+
+    public @Nullable InetSocketAddress get(InetSocketAddress address) {
+        Entry entry = this.entries.get(address);
+        if (entry == null) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        long sinceAccess = now - entry.lastAccess;
+        if (sinceAccess > EXPIRE_NANOS) {
+            this.entries.remove(address, entry);
+            return null;
+        }
+        if (sinceAccess > ACCESS_GRANULARITY_NANOS) {
+            entry.lastAccess = now;
+        }
+        return entry.proxiedAddress;
+    }
+
+    public InetSocketAddress getOrDefault(InetSocketAddress address, InetSocketAddress defaultAddress) {
+        InetSocketAddress proxiedAddress = get(address);
+        return proxiedAddress == null ? defaultAddress : proxiedAddress;
+    }
+
+    public void put(InetSocketAddress address, InetSocketAddress proxiedAddress) {
+        this.entries.put(address, new Entry(proxiedAddress, System.nanoTime()));
+    }
+
+    /**
+     * Removes the entries that have not been looked up for 31 minutes.
+     */
+    public void expire() {
+        long now = System.nanoTime();
+        this.entries.values().removeIf(entry -> now - entry.lastAccess > EXPIRE_NANOS);
+    }
+
+    private static final class Entry {
+        private final InetSocketAddress proxiedAddress;
+        private volatile long lastAccess;
+
+        private Entry(InetSocketAddress proxiedAddress, long lastAccess) {
+            this.proxiedAddress = proxiedAddress;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -47,36 +47,38 @@ public class ProxyServerHandler extends SimpleChannelInboundHandler<DatagramPack
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) {
+        InetSocketAddress presentAddress = GeyserImpl.getInstance().getGeyserServer().getProxiedAddresses().get(packet.sender());
+        if (presentAddress != null) {
+            // Most datagrams come from proxies we already know, so don't look for a header
+            log.trace("Reusing PROXY header: (from {}) {}", packet.sender(), presentAddress);
+            ctx.fireChannelRead(packet.retain());
+            return;
+        }
+
         ByteBuf content = packet.content();
         GeyserBedrockPeer peer = (GeyserBedrockPeer) ctx.pipeline().get(BedrockPeer.NAME);
         int detectedVersion = peer != null ? -1 : ProxyProtocolDecoder.findVersion(content);
-        InetSocketAddress presentAddress = GeyserImpl.getInstance().getGeyserServer().getProxiedAddresses().get(packet.sender());
-
-        if (presentAddress == null && detectedVersion == -1) {
+        if (detectedVersion == -1) {
             // We haven't received a header from given address before and we couldn't detect a
             // PROXY header, ignore.
             return;
         }
 
-        if (presentAddress == null) {
-            final HAProxyMessage decoded;
-            try {
-                if ((decoded = ProxyProtocolDecoder.decode(content, detectedVersion)) == null) {
-                    // PROXY header was not present in the packet, ignore.
-                    return;
-                }
-            } catch (HAProxyProtocolException e) {
-                log.debug("{} sent malformed PROXY header", packet.sender(), e);
+        final HAProxyMessage decoded;
+        try {
+            if ((decoded = ProxyProtocolDecoder.decode(content, detectedVersion)) == null) {
+                // PROXY header was not present in the packet, ignore.
                 return;
             }
-
-            presentAddress = new InetSocketAddress(decoded.sourceAddress(), decoded.sourcePort());
-            log.debug("Got PROXY header: (from {}) {}", packet.sender(), presentAddress);
-            GeyserImpl.getInstance().getGeyserServer().getProxiedAddresses().put(packet.sender(), presentAddress);
-        } else {
-            log.trace("Reusing PROXY header: (from {}) {}", packet.sender(), presentAddress);
+        } catch (HAProxyProtocolException e) {
+            log.debug("{} sent malformed PROXY header", packet.sender(), e);
+            return;
         }
 
+        presentAddress = new InetSocketAddress(decoded.sourceAddress(), decoded.sourcePort());
+        log.debug("Got PROXY header: (from {}) {}", packet.sender(), presentAddress);
+        GeyserImpl.getInstance().getGeyserServer().getProxiedAddresses().put(packet.sender(), presentAddress);
+
         ctx.fireChannelRead(packet.retain());
     }
 }
\ No newline at end of file
@@ -38,6 +38,7 @@ import org.geysermc.geyser.network.GameProtocol;
 import java.io.*;
 import java.net.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class GeyserLegacyPingPassthrough implements IGeyserPingPassthrough, Runnable {
     private static final byte[] HAPROXY_BINARY_PREFIX = new byte[]{13, 10, 13, 10, 0, 13, 10, 81, 85, 73, 84, 10};
@@ -49,6 +50,10 @@ public class GeyserLegacyPingPassthrough implements IGeyserPingPassthrough, Runn
     }
 
     private GeyserPingInfo pingInfo;
+    /**
+     * Whether a ping is still in progress, so a slow server doesn't get pinged again before it has replied.
+     */
+    private final AtomicBoolean pinging = new AtomicBoolean();
 
     /**
      * Start legacy ping passthrough thread
@@ -61,12 +66,27 @@ public class GeyserLegacyPingPassthrough implements IGeyserPingPassthrough, Runn
             // Ensure delay is not zero
             int interval = (geyser.getConfig().getPingPassthroughInterval() == 0) ? 1 : geyser.getConfig().getPingPassthroughInterval();
             geyser.getLogger().debug("Scheduling ping passthrough at an interval of " + interval + " second(s).");
-            geyser.getScheduledThread().scheduleAtFixedRate(pingPassthrough, 1, interval, TimeUnit.SECONDS);
+            geyser.getScheduledThread().scheduleAtFixedRate(pingPassthrough::schedulePing, 1, interval, TimeUnit.SECONDS);
             return pingPassthrough;
         }
         return null;
     }
 
+    /**
+     * Pings the server on the blocking executor, so the scheduled thread isn't held up waiting for the server.
+     */
+    private void schedulePing() {
+        if (pinging.compareAndSet(false, true)) {
+            geyser.getBlockingExecutor().execute(() -> {
+                try {
+                    run();
+                } finally {
+                    pinging.set(false);
+                }
+            });
+        }
+    }
+
     @Override
     public GeyserPingInfo getPingInformation(InetSocketAddress inetSocketAddress) {
         return pingInfo;
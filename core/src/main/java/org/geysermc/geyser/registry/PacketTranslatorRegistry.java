@@ -28,13 +28,13 @@ package org.geysermc.geyser.registry;
 import org.cloudburstmc.protocol.bedrock.packet.ServerboundDiagnosticsPacket;
 import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.ClientboundDelimiterPacket;
 import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.ClientboundTabListPacket;
-import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundChunkBatchStartPacket;
 import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundLightUpdatePacket;
 import io.netty.channel.EventLoop;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.erosion.ErosionCancellationException;
 import org.geysermc.geyser.registry.loader.RegistryLoaders;
 import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.session.SessionHandoff;
 import org.geysermc.geyser.text.GeyserLocale;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
 
@@ -46,7 +46,6 @@ public class PacketTranslatorRegistry<T> extends AbstractMappedRegistry<Class<?
     private static final Set<Class<?>> IGNORED_PACKETS = Collections.newSetFromMap(new IdentityHashMap<>());
 
     static {
-        IGNORED_PACKETS.add(ClientboundChunkBatchStartPacket.class); // we don't track chunk batch sizes/periods
         IGNORED_PACKETS.add(ClientboundDelimiterPacket.class); // Not implemented, spams logs
         IGNORED_PACKETS.add(ClientboundLightUpdatePacket.class); // Light is handled on Bedrock for us
         IGNORED_PACKETS.add(ClientboundTabListPacket.class); // Cant be implemented in Bedrock
@@ -69,6 +68,7 @@ public class PacketTranslatorRegistry<T> extends AbstractMappedRegistry<Class<?
             if (canRunImmediately || !translator.shouldExecuteInEventLoop() || eventLoop.inEventLoop()) {
                 translate0(session, translator, packet);
             } else {
+                SessionHandoff.UPSTREAM_RECEIVE.record();
                 eventLoop.execute(() -> translate0(session, translator, packet));
             }
             return true;
@@ -88,6 +88,15 @@ public class PacketTranslatorRegistry<T> extends AbstractMappedRegistry<Class<?
             return;
         }
 
+        if (translator.shouldWaitForChunks() && !session.getChunkTranslationPipeline().isIdle()) {
+            session.getChunkTranslationPipeline().runInOrder(() -> translateImmediately(session, translator, packet));
+            return;
+        }
+
+        translateImmediately(session, translator, packet);
+    }
+
+    private <P extends T> void translateImmediately(GeyserSession session, PacketTranslator<P> translator, P packet) {
         try {
             translator.translate(session, packet);
         } catch (ErosionCancellationException ex) {
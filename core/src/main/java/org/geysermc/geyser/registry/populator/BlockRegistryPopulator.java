@@ -31,6 +31,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Interner;
 import com.google.common.collect.Interners;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectMaps;
@@ -62,6 +63,7 @@ import org.geysermc.geyser.registry.populator.conversion.Conversion776_766;
 import org.geysermc.geyser.registry.populator.conversion.Conversion786_776;
 import org.geysermc.geyser.registry.type.BlockMappings;
 import org.geysermc.geyser.registry.type.GeyserBedrockBlock;
+import org.geysermc.geyser.translator.level.block.entity.BedrockChunkWantsBlockEntityTag;
 
 import java.io.DataInputStream;
 import java.io.InputStream;
@@ -244,6 +246,7 @@ public final class BlockRegistryPopulator {
             Map<NbtMap, BlockDefinition> itemFrames = new Object2ObjectOpenHashMap<>();
 
             Set<BlockDefinition> jigsawDefinitions = new ObjectOpenHashSet<>();
+            BitSet bedrockBlockEntityStates = new BitSet(JAVA_BLOCKS_SIZE);
             Map<String, BlockDefinition> structureBlockDefinitions = new Object2ObjectOpenHashMap<>();
 
             BlockMappings.BlockMappingsBuilder builder = BlockMappings.builder();
@@ -294,6 +297,10 @@ public final class BlockRegistryPopulator {
                     }
                 }
 
+                if (block instanceof BedrockChunkWantsBlockEntityTag) {
+                    bedrockBlockEntityStates.set(javaRuntimeId);
+                }
+
                 if (block == Blocks.JIGSAW) {
                     jigsawDefinitions.add(bedrockDefinition);
                 }
@@ -385,6 +392,15 @@ public final class BlockRegistryPopulator {
 
             javaToBedrockIdentifiers.trim();
 
+            // Flattened for the chunk translator, which looks these up for every block
+            int[] extendedCollisionRuntimeIds = new int[JAVA_BLOCKS_SIZE];
+            Arrays.fill(extendedCollisionRuntimeIds, -1);
+            Int2ObjectMaps.fastForEach(extendedCollisionBoxes, entry -> {
+                if (entry.getIntKey() >= 0 && entry.getIntKey() < extendedCollisionRuntimeIds.length) {
+                    extendedCollisionRuntimeIds[entry.getIntKey()] = entry.getValue().getRuntimeId();
+                }
+            });
+
             // Loop around again to find all item frame runtime IDs
             Object2ObjectMaps.fastForEach(blockStateOrderedMap, entry -> {
                 String name = entry.getKey().getString("name");
@@ -406,6 +422,8 @@ public final class BlockRegistryPopulator {
                     .blockProperties(customBlockProperties)
                     .customBlockStateDefinitions(customBlockStateDefinitions)
                     .extendedCollisionBoxes(extendedCollisionBoxes)
+                    .extendedCollisionRuntimeIds(extendedCollisionRuntimeIds)
+                    .bedrockBlockEntityStates(bedrockBlockEntityStates)
                     .build());
         }
     }
@@ -38,6 +38,7 @@ import org.geysermc.geyser.api.block.custom.CustomBlockState;
 import org.geysermc.geyser.level.block.type.Block;
 import org.geysermc.geyser.level.block.type.BlockState;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -75,6 +76,14 @@ public class BlockMappings implements DefinitionRegistry<BlockDefinition> {
     List<BlockPropertyData> blockProperties;
     Object2ObjectMap<CustomBlockState, GeyserBedrockBlock> customBlockStateDefinitions;
     Int2ObjectMap<GeyserBedrockBlock> extendedCollisionBoxes;
+    /**
+     * Java block state -> Bedrock runtime ID of the extended collision box above it, or -1
+     */
+    int[] extendedCollisionRuntimeIds;
+    /**
+     * Java block states that need a block entity on Bedrock, but not on Java
+     */
+    BitSet bedrockBlockEntityStates;
 
     public int getBedrockBlockId(int javaState) {
         return getBedrockBlock(javaState).getRuntimeId();
@@ -102,6 +111,27 @@ public class BlockMappings implements DefinitionRegistry<BlockDefinition> {
         return this.javaToVanillaBedrockBlocks[javaState];
     }
 
+    public boolean hasExtendedCollisionBoxes() {
+        return !this.extendedCollisionBoxes.isEmpty();
+    }
+
+    /**
+     * @return the Bedrock runtime ID of the extended collision box placed above this block, or -1 if there is none
+     */
+    public int getExtendedCollisionRuntimeId(int javaState) {
+        if (javaState < 0 || javaState >= this.extendedCollisionRuntimeIds.length) {
+            return -1;
+        }
+        return this.extendedCollisionRuntimeIds[javaState];
+    }
+
+    /**
+     * @return true if this block state needs a Bedrock-only block entity, see {@link org.geysermc.geyser.translator.level.block.entity.BedrockChunkWantsBlockEntityTag}
+     */
+    public boolean wantsBedrockBlockEntity(int javaState) {
+        return javaState >= 0 && this.bedrockBlockEntityStates.get(javaState);
+    }
+
     public BlockDefinition getItemFrame(NbtMap tag) {
         return this.itemFrames.get(tag);
     }
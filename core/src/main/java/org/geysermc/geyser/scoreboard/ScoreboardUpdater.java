@@ -26,156 +26,145 @@
 package org.geysermc.geyser.scoreboard;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.configuration.GeyserConfiguration;
 import org.geysermc.geyser.session.GeyserSession;
-import org.geysermc.geyser.session.cache.WorldCache;
 import org.geysermc.geyser.text.GeyserLocale;
 
-import java.util.Collection;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-public final class ScoreboardUpdater extends Thread {
-    public static final int FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD;
+/**
+ * Throttles scoreboard updates for sessions that receive many score and team packets. Each session tracks its own
+ * packet rate and flushes its changes on its own event loop, so a busy scoreboard only slows down its own session.
+ */
+public final class ScoreboardUpdater {
     public static final int SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD = 250;
 
     private static final int FIRST_MILLIS_BETWEEN_UPDATES = 250; // 4 updates per second
     private static final int SECOND_MILLIS_BETWEEN_UPDATES = 1000; // 1 update per second
 
-    private static final boolean DEBUG_ENABLED;
+    /**
+     * Only used from the session's event loop.
+     */
+    @Getter
+    public static final class ScoreboardSession {
+        private final GeyserSession session;
+        /**
+         * The packets per second from which updates are throttled, as configured.
+         */
+        private final int firstScorePacketsPerSecondThreshold;
+        private final boolean debugEnabled;
+        private int pendingPacketsPerSecond;
+        /**
+         * The amount of score and team packets received during the last full second.
+         */
+        private int packetsPerSecond;
+        private long lastPacketsPerSecondUpdate = System.currentTimeMillis();
+        private long lastUpdate;
+        private long lastLog;
+        /**
+         * Whether the scoreboard has changes that haven't been sent yet.
+         */
+        private boolean dirty;
+        private @Nullable ScheduledFuture<?> flushTask;
+
+        public ScoreboardSession(GeyserSession session) {
+            this.session = session;
+            GeyserConfiguration config = session.getGeyser().getConfig();
+            this.firstScorePacketsPerSecondThreshold = Math.min(config.getScoreboardPacketThreshold(), SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD);
+            this.debugEnabled = config.isDebugMode();
+        }
 
-    static {
-        GeyserConfiguration config = GeyserImpl.getInstance().getConfig();
-        FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD = Math.min(config.getScoreboardPacketThreshold(), SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD);
-        DEBUG_ENABLED = config.isDebugMode();
-    }
+        public int increaseAndGetPacketsPerSecond() {
+            updatePacketsPerSecond(System.currentTimeMillis());
+            return Math.max(packetsPerSecond, ++pendingPacketsPerSecond);
+        }
 
-    private final GeyserImpl geyser = GeyserImpl.getInstance();
+        private void updatePacketsPerSecond(long currentTime) {
+            long elapsed = currentTime - lastPacketsPerSecondUpdate;
+            if (elapsed >= 1000) {
+                // If a whole second passed without packets, that second is the last one
+                packetsPerSecond = elapsed >= 2000 ? 0 : pendingPacketsPerSecond;
+                pendingPacketsPerSecond = 0;
+                lastPacketsPerSecondUpdate = currentTime;
+            }
+        }
 
-    private long lastUpdate = System.currentTimeMillis();
-    private long lastPacketsPerSecondUpdate = System.currentTimeMillis();
+        /**
+         * Sends the scoreboard changes right away, unless the packets per second (for score and team packets) reached
+         * the first threshold. Then, they're sent at most as often as the threshold allows.
+         *
+         * @param pps the packets per second returned by {@link #increaseAndGetPacketsPerSecond()}
+         */
+        public void onUpdate(int pps) {
+            if (pps < firstScorePacketsPerSecondThreshold) {
+                dirty = false;
+                session.getWorldCache().getScoreboard().onUpdate();
+                return;
+            }
 
-    public static void init() {
-        new ScoreboardUpdater().start();
-    }
+            dirty = true;
+            if (flushTask == null) {
+                long delay = lastUpdate + millisBetweenUpdates(pps) - System.currentTimeMillis();
+                flushTask = session.scheduleInEventLoop(this::flush, Math.max(0, delay), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void flush() {
+            flushTask = null;
+            if (!dirty) {
+                return;
+            }
+
+            long currentTime = System.currentTimeMillis();
+            updatePacketsPerSecond(currentTime);
+            dirty = false;
+            lastUpdate = currentTime;
 
-    @Override
-    public void run() {
-        while (!geyser.isShuttingDown() && !geyser.isReloading()) {
             try {
-                long timeTillAction = getTimeTillNextAction();
-                if (timeTillAction > 0) {
-                    sleepFor(timeTillAction);
-                    continue;
-                }
-
-                long currentTime = System.currentTimeMillis();
-
-                // reset score-packets per second every second
-                Collection<GeyserSession> sessions = geyser.getSessionManager().getSessions().values();
-                if (currentTime - lastPacketsPerSecondUpdate >= 1000) {
-                    lastPacketsPerSecondUpdate = currentTime;
-                    for (GeyserSession session : sessions) {
-                        ScoreboardSession scoreboardSession = session.getWorldCache().getScoreboardSession();
-
-                        int oldPps = scoreboardSession.getPacketsPerSecond();
-                        int newPps = scoreboardSession.getPendingPacketsPerSecond().get();
-
-                        scoreboardSession.packetsPerSecond = newPps;
-                        scoreboardSession.pendingPacketsPerSecond.set(0);
-
-                        // just making sure that all updates are pushed before giving up control
-                        if (oldPps >= FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD &&
-                                newPps < FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD) {
-                            session.getWorldCache().getScoreboard().onUpdate();
-                        }
-                    }
-                }
-
-                if (currentTime - lastUpdate >= FIRST_MILLIS_BETWEEN_UPDATES) {
-                    lastUpdate = currentTime;
-
-                    for (GeyserSession session : sessions) {
-                        WorldCache worldCache = session.getWorldCache();
-                        ScoreboardSession scoreboardSession = worldCache.getScoreboardSession();
-
-                        int pps = scoreboardSession.getPacketsPerSecond();
-                        if (pps >= FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD) {
-                            boolean reachedSecondThreshold = pps >= SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD;
-
-                            int millisBetweenUpdates = reachedSecondThreshold ?
-                                    SECOND_MILLIS_BETWEEN_UPDATES :
-                                    FIRST_MILLIS_BETWEEN_UPDATES;
-
-                            if (currentTime - scoreboardSession.lastUpdate >= millisBetweenUpdates) {
-                                worldCache.getScoreboard().onUpdate();
-                                scoreboardSession.lastUpdate = currentTime;
-
-                                if (DEBUG_ENABLED && (currentTime - scoreboardSession.lastLog >= 60000)) { // one minute
-                                    int threshold = reachedSecondThreshold ?
-                                            SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD :
-                                            FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD;
-
-                                    geyser.getLogger().info(
-                                            GeyserLocale.getLocaleStringLog("geyser.scoreboard.updater.threshold_reached.log", session.bedrockUsername(), threshold, pps) +
-                                                    GeyserLocale.getLocaleStringLog("geyser.scoreboard.updater.threshold_reached", (millisBetweenUpdates / 1000.0))
-                                    );
-
-                                    scoreboardSession.lastLog = currentTime;
-                                }
-                            }
-                        }
-                    }
-                }
-
-                if (DEBUG_ENABLED) {
-                    long timeSpent = System.currentTimeMillis() - currentTime;
-                    if (timeSpent > 0) {
-                        geyser.getLogger().info(String.format(
-                                "Scoreboard updater: took %s ms. Updated %s players",
-                                timeSpent, sessions.size()
-                        ));
-                    }
-                }
-
-                long timeTillNextAction = getTimeTillNextAction();
-                sleepFor(timeTillNextAction);
+                session.getWorldCache().getScoreboard().onUpdate();
             } catch (Throwable e) {
-                geyser.getLogger().error("Error while translating scoreboard information!", e);
-                // Wait so we don't try to run the scoreboard immediately after this
-                sleepFor(FIRST_MILLIS_BETWEEN_UPDATES);
+                GeyserImpl.getInstance().getLogger().error("Error while translating scoreboard information!", e);
+                return;
             }
-        }
-    }
 
-    private long getTimeTillNextAction() {
-        long currentTime = System.currentTimeMillis();
+            int pps = Math.max(packetsPerSecond, pendingPacketsPerSecond);
+            if (debugEnabled && pps >= firstScorePacketsPerSecondThreshold && (currentTime - lastLog >= 60000)) { // one minute
+                boolean reachedSecondThreshold = pps >= SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD;
+                int threshold = reachedSecondThreshold ?
+                        SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD :
+                        firstScorePacketsPerSecondThreshold;
 
-        long timeUntilNextUpdate = FIRST_MILLIS_BETWEEN_UPDATES - (currentTime - lastUpdate);
-        long timeUntilPacketReset = 1000 - (currentTime - lastPacketsPerSecondUpdate);
+                GeyserImpl.getInstance().getLogger().info(
+                        GeyserLocale.getLocaleStringLog("geyser.scoreboard.updater.threshold_reached.log", session.bedrockUsername(), threshold, pps) +
+                                GeyserLocale.getLocaleStringLog("geyser.scoreboard.updater.threshold_reached", (millisBetweenUpdates(pps) / 1000.0))
+                );
 
-        return Math.min(timeUntilNextUpdate, timeUntilPacketReset);
-    }
+                lastLog = currentTime;
+            }
+        }
 
-    private void sleepFor(long millis) {
-        if (millis <= 0) {
-            return;
+        /**
+         * Cancels the pending flush, if any. Called when the session closes.
+         */
+        public void close() {
+            ScheduledFuture<?> flushTask = this.flushTask;
+            if (flushTask != null) {
+                flushTask.cancel(false);
+                this.flushTask = null;
+            }
+            dirty = false;
         }
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+
+        private static int millisBetweenUpdates(int pps) {
+            return pps >= SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD ?
+                    SECOND_MILLIS_BETWEEN_UPDATES :
+                    FIRST_MILLIS_BETWEEN_UPDATES;
         }
     }
 
-    @RequiredArgsConstructor
-    @Getter
-    public static final class ScoreboardSession {
-        private final GeyserSession session;
-        private final AtomicInteger pendingPacketsPerSecond = new AtomicInteger(0);
-        private int packetsPerSecond;
-        private long lastUpdate;
-        private long lastLog;
+    private ScoreboardUpdater() {
     }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Counts the sessions connected per network prefix, as written by {@link org.geysermc.geyser.network.AddressPrefix}.
+ * Counts are read for every rate limit check, so reading does not lock or allocate; sessions joining and leaving
+ * only lock one of the shards.
+ */
+final class ConnectedAddresses {
+    private static final int SHARD_BITS = 4;
+    /**
+     * Every entry takes up the high key, the low key and the count.
+     */
+    private static final int ENTRY_SIZE = 3;
+
+    private final Shard[] shards = new Shard[1 << SHARD_BITS];
+
+    ConnectedAddresses() {
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new Shard();
+        }
+    }
+
+    int get(long high, long low) {
+        long hash = hash(high, low);
+        return shard(hash).get(high, low, hash);
+    }
+
+    void increment(long high, long low) {
+        long hash = hash(high, low);
+        shard(hash).add(high, low, hash, 1);
+    }
+
+    void decrement(long high, long low) {
+        long hash = hash(high, low);
+        shard(hash).add(high, low, hash, -1);
+    }
+
+    private Shard shard(long hash) {
+        return this.shards[(int) (hash >>> (64 - SHARD_BITS))];
+    }
+
+    private static long hash(long high, long low) {
+        return HashCommon.mix(high * 0x9E3779B97F4A7C15L + low);
+    }
+
+    private static final class Shard {
+        private final StampedLock lock = new StampedLock();
+        /**
+         * Open addressing with linear probing; a count of zero marks an empty entry.
+         */
+        private long[] entries = new long[16 * ENTRY_SIZE];
+        private int size;
+
+        int get(long high, long low, long hash) {
+            long stamp = this.lock.tryOptimisticRead();
+            int count = find(this.entries, high, low, hash);
+            if (!this.lock.validate(stamp)) {
+                stamp = this.lock.readLock();
+                try {
+                    count = find(this.entries, high, low, hash);
+                } finally {
+                    this.lock.unlockRead(stamp);
+                }
+            }
+            return count;
+        }
+
+        void add(long high, long low, long hash, int delta) {
+            long stamp = this.lock.writeLock();
+            try {
+                long[] entries = this.entries;
+                int mask = entries.length / ENTRY_SIZE - 1;
+                int index = (int) hash & mask;
+                while (entries[index * ENTRY_SIZE + 2] != 0) {
+                    int offset = index * ENTRY_SIZE;
+                    if (entries[offset] == high && entries[offset + 1] == low) {
+                        entries[offset + 2] += delta;
+                        if (entries[offset + 2] <= 0) {
+                            remove(entries, index, mask);
+                        }
+                        return;
+                    }
+                    index = (index + 1) & mask;
+                }
+
+                if (delta <= 0) {
+                    // Not counted, e.g. because the prefix length changed in between
+                    return;
+                }
+                int offset = index * ENTRY_SIZE;
+                entries[offset] = high;
+                entries[offset + 1] = low;
+                entries[offset + 2] = delta;
+                if (++this.size * 4 > (mask + 1) * 3) {
+                    this.entries = resize(entries, (mask + 1) * 2);
+                }
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Shifts the following entries back, so lookups don't stop early at the removed entry.
+         */
+        private void remove(long[] entries, int index, int mask) {
+            this.size--;
+            int free = index;
+            int next = (index + 1) & mask;
+            while (entries[next * ENTRY_SIZE + 2] != 0) {
+                int offset = next * ENTRY_SIZE;
+                int ideal = (int) hash(entries[offset], entries[offset + 1]) & mask;
+                // Move the entry if the free slot lies cyclically between its ideal slot and where it is now
+                if (((next - ideal) & mask) >= ((next - free) & mask)) {
+                    System.arraycopy(entries, offset, entries, free * ENTRY_SIZE, ENTRY_SIZE);
+                    free = next;
+                }
+                next = (next + 1) & mask;
+            }
+            entries[free * ENTRY_SIZE + 2] = 0;
+        }
+
+        private static long[] resize(long[] entries, int capacity) {
+            long[] resized = new long[capacity * ENTRY_SIZE];
+            int mask = capacity - 1;
+            for (int offset = 0; offset < entries.length; offset += ENTRY_SIZE) {
+                if (entries[offset + 2] == 0) {
+                    continue;
+                }
+                int index = (int) hash(entries[offset], entries[offset + 1]) & mask;
+                while (resized[index * ENTRY_SIZE + 2] != 0) {
+                    index = (index + 1) & mask;
+                }
+                System.arraycopy(entries, offset, resized, index * ENTRY_SIZE, ENTRY_SIZE);
+            }
+            return resized;
+        }
+
+        private static int find(long[] entries, long high, long low, long hash) {
+            int capacity = entries.length / ENTRY_SIZE;
+            int mask = capacity - 1;
+            int index = (int) hash & mask;
+            // Bounded, as a concurrent write may leave the entries inconsistent until the read is validated
+            for (int i = 0; i < capacity; i++) {
+                int offset = index * ENTRY_SIZE;
+                long count = entries[offset + 2];
+                if (count == 0) {
+                    return 0;
+                }
+                if (entries[offset] == high && entries[offset + 1] == low) {
+                    return (int) count;
+                }
+                index = (index + 1) & mask;
+            }
+            return 0;
+        }
+    }
+}
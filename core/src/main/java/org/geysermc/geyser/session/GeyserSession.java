@@ -79,24 +79,18 @@ import org.cloudburstmc.protocol.bedrock.data.definitions.DimensionDefinition;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityFlag;
 import org.cloudburstmc.protocol.bedrock.data.inventory.ItemData;
 import org.cloudburstmc.protocol.bedrock.data.inventory.crafting.recipe.CraftingRecipeData;
-import org.cloudburstmc.protocol.bedrock.packet.AvailableEntityIdentifiersPacket;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
-import org.cloudburstmc.protocol.bedrock.packet.BiomeDefinitionListPacket;
-import org.cloudburstmc.protocol.bedrock.packet.CameraPresetsPacket;
 import org.cloudburstmc.protocol.bedrock.packet.ChunkRadiusUpdatedPacket;
 import org.cloudburstmc.protocol.bedrock.packet.ClientboundCloseFormPacket;
-import org.cloudburstmc.protocol.bedrock.packet.CreativeContentPacket;
 import org.cloudburstmc.protocol.bedrock.packet.DimensionDataPacket;
 import org.cloudburstmc.protocol.bedrock.packet.EmoteListPacket;
 import org.cloudburstmc.protocol.bedrock.packet.GameRulesChangedPacket;
-import org.cloudburstmc.protocol.bedrock.packet.ItemComponentPacket;
 import org.cloudburstmc.protocol.bedrock.packet.LevelEventPacket;
 import org.cloudburstmc.protocol.bedrock.packet.LevelSoundEventPacket;
 import org.cloudburstmc.protocol.bedrock.packet.PlayStatusPacket;
 import org.cloudburstmc.protocol.bedrock.packet.SetCommandsEnabledPacket;
 import org.cloudburstmc.protocol.bedrock.packet.SetTimePacket;
 import org.cloudburstmc.protocol.bedrock.packet.StartGamePacket;
-import org.cloudburstmc.protocol.bedrock.packet.SyncEntityPropertyPacket;
 import org.cloudburstmc.protocol.bedrock.packet.TextPacket;
 import org.cloudburstmc.protocol.bedrock.packet.TransferPacket;
 import org.cloudburstmc.protocol.bedrock.packet.UpdateAbilitiesPacket;
@@ -149,17 +143,20 @@ import org.geysermc.geyser.item.Items;
 import org.geysermc.geyser.item.type.BlockItem;
 import org.geysermc.geyser.level.BedrockDimension;
 import org.geysermc.geyser.level.JavaDimension;
+import org.geysermc.geyser.level.chunk.ChunkBatchSizeCalculator;
+import org.geysermc.geyser.level.chunk.ChunkTranslationPipeline;
 import org.geysermc.geyser.level.physics.CollisionManager;
-import org.geysermc.geyser.network.GameProtocol;
+import org.geysermc.geyser.network.LoginPacketCache;
 import org.geysermc.geyser.network.netty.LocalSession;
-import org.geysermc.geyser.registry.Registries;
 import org.geysermc.geyser.registry.type.BlockMappings;
 import org.geysermc.geyser.registry.type.ItemMappings;
 import org.geysermc.geyser.session.auth.AuthData;
 import org.geysermc.geyser.session.auth.BedrockClientData;
 import org.geysermc.geyser.session.cache.AdvancementsCache;
+import org.geysermc.geyser.session.cache.BiomeCache;
 import org.geysermc.geyser.session.cache.BookEditCache;
 import org.geysermc.geyser.session.cache.BundleCache;
+import org.geysermc.geyser.session.cache.ChunkBlobCache;
 import org.geysermc.geyser.session.cache.ChunkCache;
 import org.geysermc.geyser.session.cache.EntityCache;
 import org.geysermc.geyser.session.cache.EntityEffectCache;
@@ -171,6 +168,7 @@ import org.geysermc.geyser.session.cache.PreferencesCache;
 import org.geysermc.geyser.session.cache.RegistryCache;
 import org.geysermc.geyser.session.cache.SkullCache;
 import org.geysermc.geyser.session.cache.StructureBlockCache;
+import org.geysermc.geyser.session.cache.SubChunkCache;
 import org.geysermc.geyser.session.cache.TagCache;
 import org.geysermc.geyser.session.cache.TeleportCache;
 import org.geysermc.geyser.session.cache.WorldBorder;
@@ -185,6 +183,7 @@ import org.geysermc.geyser.util.InventoryUtils;
 import org.geysermc.geyser.util.LoginEncryptionUtils;
 import org.geysermc.geyser.util.MathUtils;
 import org.geysermc.geyser.util.MinecraftAuthLogger;
+import org.geysermc.geyser.util.VirtualThreads;
 import org.geysermc.mcprotocollib.auth.GameProfile;
 import org.geysermc.mcprotocollib.network.BuiltinFlags;
 import org.geysermc.mcprotocollib.network.ClientSession;
@@ -231,6 +230,8 @@ import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -268,8 +269,12 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
     private final SessionPlayerEntity playerEntity;
 
     private final AdvancementsCache advancementsCache;
+    private final BiomeCache biomeCache;
     private final BookEditCache bookEditCache;
     private final BundleCache bundleCache;
+    private final ChunkBatchSizeCalculator chunkBatchSizeCalculator;
+    private final ChunkBlobCache chunkBlobCache;
+    private final ChunkTranslationPipeline chunkTranslationPipeline;
     private final ChunkCache chunkCache;
     private final EntityCache entityCache;
     private final EntityEffectCache effectCache;
@@ -281,6 +286,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
     private final RegistryCache registryCache;
     private final SkullCache skullCache;
     private final StructureBlockCache structureBlockCache;
+    private final SubChunkCache subChunkCache;
     private final TagCache tagCache;
     private final WorldCache worldCache;
 
@@ -626,9 +632,9 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
     private boolean advancedTooltips = false;
 
     /**
-     * The thread that will run every game tick.
+     * Runs {@link #tick()} every game tick.
      */
-    private ScheduledFuture<?> tickThread = null;
+    private SessionTicker.Handle tickHandle = null;
 
     /**
      * The number of ticks that have elapsed since the start of this session
@@ -691,14 +697,18 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
 
     public GeyserSession(GeyserImpl geyser, BedrockServerSession bedrockServerSession, EventLoop tickEventLoop) {
         this.geyser = geyser;
-        this.upstream = new UpstreamSession(bedrockServerSession);
+        this.upstream = new UpstreamSession(bedrockServerSession, tickEventLoop, geyser.getConfig());
         this.tickEventLoop = tickEventLoop;
 
         this.erosionHandler = new GeyserboundHandshakePacketHandler(this);
 
         this.advancementsCache = new AdvancementsCache(this);
+        this.biomeCache = new BiomeCache(this);
         this.bookEditCache = new BookEditCache(this);
         this.bundleCache = new BundleCache(this);
+        this.chunkBatchSizeCalculator = new ChunkBatchSizeCalculator(this);
+        this.chunkBlobCache = new ChunkBlobCache(this);
+        this.chunkTranslationPipeline = new ChunkTranslationPipeline(this);
         this.chunkCache = new ChunkCache(this);
         this.entityCache = new EntityCache(this);
         this.effectCache = new EntityEffectCache();
@@ -710,6 +720,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
         this.registryCache = new RegistryCache(this);
         this.skullCache = new SkullCache(this);
         this.structureBlockCache = new StructureBlockCache();
+        this.subChunkCache = new SubChunkCache(this);
         this.tagCache = new TagCache(this);
         this.worldCache = new WorldCache(this);
         this.cameraData = new GeyserCameraData(this);
@@ -772,42 +783,20 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
 
         startGame();
         sentSpawnPacket = true;
-        syncEntityProperties();
 
-        if (GameProtocol.isPreCreativeInventoryRewrite(this.protocolVersion())) {
-            ItemComponentPacket componentPacket = new ItemComponentPacket();
-            componentPacket.getItems().addAll(itemMappings.getComponentItemData());
-            upstream.sendPacket(componentPacket);
-        } else {
-            ItemComponentPacket componentPacket = new ItemComponentPacket();
-            componentPacket.getItems().addAll(itemMappings.getItemDefinitions().values());
-            upstream.sendPacket(componentPacket);
+        // These are the same for everyone on this version, so they are only serialized once
+        LoginPacketCache.LoginPackets loginPackets = geyser.getLoginPacketCache().get(upstream.getSession().getCodec());
+        for (LoginPacketCache.EncodedPacket entityProperties : loginPackets.entityProperties()) {
+            upstream.sendPacket(entityProperties.toPacket());
         }
+        upstream.sendPacket(loginPackets.itemComponents().toPacket());
 
         ChunkUtils.sendEmptyChunks(this, playerEntity.getPosition().toInt(), 0, false);
 
-        if (GameProtocol.is1_21_80orHigher(this)) {
-            BiomeDefinitionListPacket biomeDefinitionListPacket = new BiomeDefinitionListPacket();
-            biomeDefinitionListPacket.setBiomes(Registries.BIOMES.get());
-            upstream.sendPacket(biomeDefinitionListPacket);
-        } else {
-            BiomeDefinitionListPacket biomeDefinitionListPacket = new BiomeDefinitionListPacket();
-            biomeDefinitionListPacket.setDefinitions(Registries.BIOMES_NBT.get());
-            upstream.sendPacket(biomeDefinitionListPacket);
-        }
-
-        AvailableEntityIdentifiersPacket entityPacket = new AvailableEntityIdentifiersPacket();
-        entityPacket.setIdentifiers(Registries.BEDROCK_ENTITY_IDENTIFIERS.get());
-        upstream.sendPacket(entityPacket);
-
-        CameraPresetsPacket cameraPresetsPacket = new CameraPresetsPacket();
-        cameraPresetsPacket.getPresets().addAll(CameraDefinitions.CAMERA_PRESETS);
-        upstream.sendPacket(cameraPresetsPacket);
-
-        CreativeContentPacket creativePacket = new CreativeContentPacket();
-        creativePacket.getContents().addAll(this.itemMappings.getCreativeItems());
-        creativePacket.getGroups().addAll(this.itemMappings.getCreativeItemGroups());
-        upstream.sendPacket(creativePacket);
+        upstream.sendPacket(loginPackets.biomeDefinitions().toPacket());
+        upstream.sendPacket(loginPackets.entityIdentifiers().toPacket());
+        upstream.sendPacket(loginPackets.cameraPresets().toPacket());
+        upstream.sendPacket(loginPackets.creativeContent().toPacket());
 
         PlayStatusPacket playStatusPacket = new PlayStatusPacket();
         playStatusPacket.setStatus(PlayStatusPacket.Status.PLAYER_SPAWN);
@@ -864,6 +853,8 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
 
         loggingIn = true;
 
+        // Only shares the blocking executor if it has threads to spare, so logins don't wait behind skin downloads
+        Executor executor = VirtualThreads.isActive() ? geyser.getBlockingExecutor() : ForkJoinPool.commonPool();
         CompletableFuture.supplyAsync(() -> {
             StepFullJavaSession step = PendingMicrosoftAuthentication.AUTH_FLOW.apply(true, 30);
             StepFullJavaSession.FullJavaSession response;
@@ -883,7 +874,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
             );
             geyser.saveAuthChain(bedrockUsername(), GSON.toJson(step.toJson(response)));
             return Boolean.TRUE;
-        }).whenComplete((successful, ex) -> {
+        }, executor).whenComplete((successful, ex) -> {
             if (this.closed) {
                 return;
             }
@@ -998,7 +989,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
         this.remoteServer = loginEvent.remoteServer();
 
         // Start ticking
-        tickThread = tickEventLoop.scheduleAtFixedRate(this::tick, nanosecondsPerTick, nanosecondsPerTick, TimeUnit.NANOSECONDS);
+        tickHandle = SessionTicker.schedule(tickEventLoop, this::tick, nanosecondsPerTick);
 
         ClientSession downstream;
         if (geyser.getBootstrap().getSocketAddress() != null) {
@@ -1094,9 +1085,10 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
             }
         }
 
-        if (tickThread != null) {
-            tickThread.cancel(false);
+        if (tickHandle != null) {
+            tickHandle.cancel();
         }
+        worldCache.getScoreboardSession().close();
 
         // Mark session as closed before cancelling erosion futures
         closed = true;
@@ -1119,6 +1111,9 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
      * Executes a task and prints a stack trace if an error occurs.
      */
     public void executeInEventLoop(Runnable runnable) {
+        if (!tickEventLoop.inEventLoop()) {
+            SessionHandoff.TASK.record();
+        }
         tickEventLoop.execute(() -> executeRunnable(runnable));
     }
 
@@ -1138,13 +1133,13 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
     }
 
     public void updateTickingState(float tickRate, boolean frozen) {
-        tickThread.cancel(false);
+        tickHandle.cancel();
         this.tickingFrozen = frozen;
 
         tickRate = MathUtils.clamp(tickRate, 1.0f, 10000.0f);
         millisecondsPerTick = 1000.0f / tickRate;
         nanosecondsPerTick = MathUtils.ceil(1000000000.0f / tickRate);
-        tickThread = tickEventLoop.scheduleAtFixedRate(this::tick, nanosecondsPerTick, nanosecondsPerTick, TimeUnit.NANOSECONDS);
+        tickHandle = SessionTicker.schedule(tickEventLoop, this::tick, nanosecondsPerTick);
     }
 
     private void executeRunnable(Runnable runnable) {
@@ -1633,14 +1628,6 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
         upstream.sendPacket(startGamePacket);
     }
 
-    private void syncEntityProperties() {
-        for (NbtMap nbtMap : Registries.BEDROCK_ENTITY_PROPERTIES.get()) {
-            SyncEntityPropertyPacket syncEntityPropertyPacket = new SyncEntityPropertyPacket();
-            syncEntityPropertyPacket.setData(nbtMap);
-            upstream.sendPacket(syncEntityPropertyPacket);
-        }
-    }
-
     /**
      * @return the next Bedrock item network ID to use for a new item
      */
@@ -1749,6 +1736,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
             if (eventLoop.inEventLoop()) {
                 sendDownstreamPacket0(packet);
             } else {
+                SessionHandoff.DOWNSTREAM_SEND.record();
                 eventLoop.execute(() -> sendDownstreamPacket0(packet));
             }
         }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts work that had to be passed from one thread to another on its way into or out of a session.
+ * With {@code session-thread-affinity} enabled, most of these should stay at zero.
+ */
+public enum SessionHandoff {
+    /**
+     * A Bedrock packet that was received on the network thread and translated on the session's event loop.
+     */
+    UPSTREAM_RECEIVE("upstream-receive"),
+    /**
+     * A batch of Bedrock packets that was written to the network from another thread than the client's channel.
+     */
+    UPSTREAM_SEND("upstream-send"),
+    /**
+     * A Java packet that was sent from another thread than the server connection's channel.
+     */
+    DOWNSTREAM_SEND("downstream-send"),
+    /**
+     * A task that was moved onto the session's event loop from another thread.
+     */
+    TASK("task");
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    SessionHandoff(String name) {
+        this.name = name;
+    }
+
+    public void record() {
+        count.increment();
+    }
+
+    /**
+     * @return how often each kind of work was handed to another thread since startup
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (SessionHandoff handoff : values()) {
+            snapshot.put(handoff.name, handoff.count.sum());
+        }
+        return snapshot;
+    }
+}
@@ -30,6 +30,9 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.network.AddressPrefix;
 import org.geysermc.geyser.text.GeyserLocale;
 
 import java.net.InetAddress;
@@ -40,7 +43,6 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public final class SessionManager {
     /**
@@ -55,25 +57,18 @@ public final class SessionManager {
     private final Map<UUID, GeyserSession> sessions = new ConcurrentHashMap<>();
 
     /**
-     * Stores the number of connected sessions per address they're connected from.
+     * Stores the number of connected sessions per network prefix they're connected from.
      * Used to raise per-IP connection limits.
      */
-    @Getter(AccessLevel.PACKAGE)
-    private final Map<InetAddress, AtomicInteger> connectedClients = new ConcurrentHashMap<>();
+    private final ConnectedAddresses connectedClients = new ConnectedAddresses();
 
     /**
      * Called once the player has successfully authenticated to the Geyser server.
      */
     public void addPendingSession(GeyserSession session) {
         pendingSessions.add(session);
-        connectedClients.compute(session.getSocketAddress().getAddress(), (key, count) -> {
-            if (count == null) {
-                return new AtomicInteger(1);
-            }
-
-            count.incrementAndGet();
-            return count;
-        });
+        long[] key = addressKey(session.getSocketAddress().getAddress());
+        connectedClients.increment(key[0], key[1]);
     }
 
     /**
@@ -90,17 +85,29 @@ public final class SessionManager {
             // Connection was likely pending
             pendingSessions.remove(session);
         }
-        connectedClients.computeIfPresent(session.getSocketAddress().getAddress(), (key, count) -> {
-            if (count.decrementAndGet() <= 0) {
-                return null;
-            }
-            return count;
-        });
+        long[] key = addressKey(session.getSocketAddress().getAddress());
+        connectedClients.decrement(key[0], key[1]);
     }
 
     public int getAddressMultiplier(InetAddress ip) {
-        AtomicInteger atomicInteger = connectedClients.get(ip);
-        return atomicInteger == null ? 1 : atomicInteger.get();
+        long[] key = addressKey(ip);
+        return getAddressMultiplier(key[0], key[1]);
+    }
+
+    /**
+     * @param high the first element of the {@link AddressPrefix} key, using the configured rate limit prefixes
+     * @param low the second element of the key
+     * @return the amount of sessions connected from the network prefix, but at least one
+     */
+    public int getAddressMultiplier(long high, long low) {
+        return Math.max(1, connectedClients.get(high, low));
+    }
+
+    private static long[] addressKey(InetAddress address) {
+        GeyserConfiguration config = GeyserImpl.getInstance().getConfig();
+        long[] key = new long[2];
+        AddressPrefix.write(address, config.getRateLimitIpv4Prefix(), config.getRateLimitIpv6Prefix(), key);
+        return key;
     }
 
     public @Nullable GeyserSession sessionByXuid(@NonNull String xuid) {
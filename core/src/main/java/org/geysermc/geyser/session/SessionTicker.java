@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.geysermc.geyser.GeyserImpl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ticks all sessions of one event loop from a hashed timing wheel, instead of every session scheduling its own
+ * periodic task. The event loop only wakes up for slots that have sessions in them. Only used from its event loop.
+ */
+public final class SessionTicker {
+    private static final FastThreadLocal<SessionTicker> TICKERS = new FastThreadLocal<>();
+
+    private static final long RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    /**
+     * Must be a power of two. Covers a full tick at 20 TPS; tasks with longer periods wait in their slot for as many
+     * rounds as needed.
+     */
+    private static final int WHEEL_SIZE = 16;
+    /**
+     * How many missed ticks a task may run back-to-back before the missed ticks are dropped.
+     */
+    static final int MAX_CATCH_UP_TICKS = 5;
+
+    /**
+     * Upper bounds of the tick duration histogram, doubling from 62.5 microseconds; the last bucket has no bound.
+     */
+    private static final int HISTOGRAM_BUCKETS = 12;
+    private static final long HISTOGRAM_BASE_NANOS = 62_500;
+    private static final LongAdder[] DURATIONS = new LongAdder[HISTOGRAM_BUCKETS];
+    private static final LongAdder OVERRUNS = new LongAdder();
+
+    static {
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            DURATIONS[i] = new LongAdder();
+        }
+    }
+
+    private final EventLoop eventLoop;
+    private final boolean stagger;
+    private final long origin;
+    @SuppressWarnings("unchecked")
+    private final List<Handle>[] wheel = new List[WHEEL_SIZE];
+    private List<Handle> spare = new ArrayList<>();
+    /**
+     * The earliest wheel tick of the handles in each slot, so the event loop isn't woken up for handles that are due
+     * in a later round.
+     */
+    private final long[] slotTicks = new long[WHEEL_SIZE];
+    /**
+     * The last wheel tick whose slot was processed.
+     */
+    private long processedTick;
+    private int size;
+    private long staggerCounter;
+    private ScheduledFuture<?> driver;
+    /**
+     * The wheel tick the driver is scheduled for.
+     */
+    private long driverTick;
+
+    SessionTicker(EventLoop eventLoop, boolean stagger, long origin) {
+        this.eventLoop = eventLoop;
+        this.stagger = stagger;
+        this.origin = origin;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            this.wheel[i] = new ArrayList<>();
+        }
+        this.processedTick = currentTick(origin);
+    }
+
+    /**
+     * Runs the task every period on the event loop, starting one period from now, until the handle is cancelled.
+     */
+    public static Handle schedule(EventLoop eventLoop, Runnable task, long periodNanos) {
+        Handle handle = new Handle(task, periodNanos);
+        if (eventLoop.inEventLoop()) {
+            ticker(eventLoop).add(handle, System.nanoTime());
+        } else {
+            eventLoop.execute(() -> ticker(eventLoop).add(handle, System.nanoTime()));
+        }
+        return handle;
+    }
+
+    private static SessionTicker ticker(EventLoop eventLoop) {
+        SessionTicker ticker = TICKERS.get();
+        if (ticker == null) {
+            ticker = new SessionTicker(eventLoop, GeyserImpl.getInstance().getConfig().isTickPhaseStagger(), System.nanoTime());
+            TICKERS.set(ticker);
+        }
+        return ticker;
+    }
+
+    void add(Handle handle, long now) {
+        if (handle.cancelled) {
+            return;
+        }
+
+        long period = handle.period;
+        if (this.stagger) {
+            // Spread the sessions evenly over the period, so they don't all tick in the same millisecond
+            long phase = (long) (period * ((this.staggerCounter++ * 0.6180339887498949) % 1));
+            handle.deadline = now + period + phase;
+        } else {
+            // Align all sessions with the same period, so they tick in one batch
+            long sinceOrigin = now + period - this.origin;
+            handle.deadline = this.origin + (sinceOrigin + period - 1) / period * period;
+        }
+
+        if (this.size == 0) {
+            // Nothing to catch up on after being idle
+            this.processedTick = currentTick(now) - 1;
+        }
+        insert(handle);
+        this.size++;
+        scheduleDriver(now);
+    }
+
+    void advance(long now) {
+        this.driver = null;
+        long tick = currentTick(now);
+        // All slots since the last wakeup; the empty ones in between are skipped quickly
+        long first = Math.max(this.processedTick + 1, tick - WHEEL_SIZE + 1);
+        for (long t = first; t <= tick; t++) {
+            this.processedTick = t;
+            processSlot((int) (t & (WHEEL_SIZE - 1)), now);
+        }
+        scheduleDriver(now);
+    }
+
+    /**
+     * Wakes the event loop up at the start of the first slot with handles in it, if it isn't already.
+     */
+    private void scheduleDriver(long now) {
+        long next = nextOccupiedTick();
+        if (this.driver != null) {
+            if (next != -1 && this.driverTick <= next) {
+                return;
+            }
+            this.driver.cancel(false);
+            this.driver = null;
+        }
+        if (next == -1) {
+            return;
+        }
+
+        this.driverTick = next;
+        long delay = Math.max(0, this.origin + next * RESOLUTION_NANOS - now);
+        this.driver = this.eventLoop.schedule(() -> advance(System.nanoTime()), delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the first tick that has handles due, or -1 if the wheel is empty
+     */
+    private long nextOccupiedTick() {
+        long next = -1;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            if (!this.wheel[i].isEmpty() && (next == -1 || this.slotTicks[i] < next)) {
+                next = this.slotTicks[i];
+            }
+        }
+        return next;
+    }
+
+    private void processSlot(int index, long now) {
+        List<Handle> slot = this.wheel[index];
+        if (slot.isEmpty()) {
+            return;
+        }
+        // Swap, as handles may be inserted into this slot again
+        this.wheel[index] = this.spare;
+        this.spare = slot;
+
+        for (int i = 0; i < slot.size(); i++) {
+            Handle handle = slot.get(i);
+            if (handle.cancelled) {
+                this.size--;
+                continue;
+            }
+            if (handle.deadline - now > RESOLUTION_NANOS) {
+                // Due in a later round of the wheel
+                insert(handle);
+                continue;
+            }
+
+            run(handle, now);
+            if (handle.cancelled) {
+                this.size--;
+            } else {
+                insert(handle);
+            }
+        }
+        slot.clear();
+    }
+
+    private void run(Handle handle, long now) {
+        long lateness = Math.max(0, now - handle.deadline);
+        if (lateness > handle.period + RESOLUTION_NANOS) {
+            OVERRUNS.increment();
+        }
+        // Periods shorter than the resolution run several times per slot
+        int ticks = (int) Math.min(MAX_CATCH_UP_TICKS, lateness / handle.period + 1);
+
+        for (int i = 0; i < ticks && !handle.cancelled; i++) {
+            long start = System.nanoTime();
+            try {
+                handle.task.run();
+            } catch (Throwable t) {
+                GeyserImpl.getInstance().getLogger().error("Error while ticking a session", t);
+            }
+            recordDuration(System.nanoTime() - start);
+            handle.deadline += handle.period;
+        }
+
+        if (now - handle.deadline >= handle.period) {
+            // Too far behind; drop the missed ticks instead of running them all at once
+            handle.deadline = now + handle.period;
+        }
+    }
+
+    private void insert(Handle handle) {
+        long tick = Math.max(this.processedTick + 1, currentTick(handle.deadline));
+        int index = (int) (tick & (WHEEL_SIZE - 1));
+        List<Handle> slot = this.wheel[index];
+        if (slot.isEmpty() || tick < this.slotTicks[index]) {
+            this.slotTicks[index] = tick;
+        }
+        slot.add(handle);
+    }
+
+    /**
+     * @return the amount of handles in the wheel, including cancelled ones that weren't removed yet
+     */
+    int size() {
+        return this.size;
+    }
+
+    private long currentTick(long time) {
+        return (time - this.origin) / RESOLUTION_NANOS;
+    }
+
+    private static void recordDuration(long nanos) {
+        int bucket = 64 - Long.numberOfLeadingZeros(nanos / HISTOGRAM_BASE_NANOS);
+        DURATIONS[Math.min(bucket, HISTOGRAM_BUCKETS - 1)].increment();
+    }
+
+    /**
+     * @return how often a session tick ran more than one period late
+     */
+    public static long overruns() {
+        return OVERRUNS.sum();
+    }
+
+    /**
+     * @return the number of session ticks per duration bucket, keyed by the bucket's upper bound
+     */
+    public static Map<String, Long> durations() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            String bound = i == HISTOGRAM_BUCKETS - 1 ? "+Inf" : "<" + BigDecimal.valueOf(HISTOGRAM_BASE_NANOS << i, 3).stripTrailingZeros().toPlainString() + "us";
+            durations.put(bound, DURATIONS[i].sum());
+        }
+        return durations;
+    }
+
+    public static final class Handle {
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+        private volatile boolean cancelled;
+
+        Handle(Runnable task, long period) {
+            this.task = task;
+            this.period = period;
+        }
+
+        /**
+         * Stops the task; it is removed from the wheel the next time its slot comes up.
+         */
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        long deadline() {
+            return this.deadline;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session;
+
+import org.cloudburstmc.protocol.bedrock.data.SubChunkData;
+import org.cloudburstmc.protocol.bedrock.packet.AddEntityPacket;
+import org.cloudburstmc.protocol.bedrock.packet.AddItemEntityPacket;
+import org.cloudburstmc.protocol.bedrock.packet.AddPaintingPacket;
+import org.cloudburstmc.protocol.bedrock.packet.AddPlayerPacket;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.ChangeDimensionPacket;
+import org.cloudburstmc.protocol.bedrock.packet.CraftingDataPacket;
+import org.cloudburstmc.protocol.bedrock.packet.LevelChunkPacket;
+import org.cloudburstmc.protocol.bedrock.packet.MoveEntityAbsolutePacket;
+import org.cloudburstmc.protocol.bedrock.packet.MoveEntityDeltaPacket;
+import org.cloudburstmc.protocol.bedrock.packet.MovePlayerPacket;
+import org.cloudburstmc.protocol.bedrock.packet.SetEntityMotionPacket;
+import org.cloudburstmc.protocol.bedrock.packet.SubChunkPacket;
+
+/**
+ * How urgently a packet sent to a Bedrock client needs to arrive.
+ */
+enum UpstreamPacketPriority {
+    /**
+     * Movement, which may be sent ahead of packets held back by the send budget, as long as none of them spawn or
+     * move the same entity, or change the dimension.
+     */
+    REAL_TIME,
+    /**
+     * Everything else; never reordered
+     */
+    NORMAL,
+    /**
+     * Large packets that are limited by the send budget. Packets queued after them wait until they are sent,
+     * as they may depend on them (such as block updates in a chunk).
+     */
+    BULK;
+
+    /**
+     * Used for bulk packets without an easily measured size
+     */
+    private static final int DEFAULT_BULK_SIZE = 16 * 1024;
+
+    /**
+     * Returned by {@link #entityId(BedrockPacket)} for packets that don't spawn or move an entity
+     */
+    static final long NO_ENTITY = -1;
+    /**
+     * Returned by {@link #entityId(BedrockPacket)} for packets that no movement may be sent ahead of
+     */
+    static final long ALL_ENTITIES = Long.MIN_VALUE;
+
+    static UpstreamPacketPriority of(BedrockPacket packet) {
+        if (packet instanceof MovePlayerPacket || packet instanceof MoveEntityDeltaPacket
+            || packet instanceof MoveEntityAbsolutePacket || packet instanceof SetEntityMotionPacket) {
+            return REAL_TIME;
+        }
+        if (packet instanceof LevelChunkPacket || packet instanceof SubChunkPacket
+            || packet instanceof CraftingDataPacket) {
+            return BULK;
+        }
+        return NORMAL;
+    }
+
+    /**
+     * @return roughly how many bytes a bulk packet takes up
+     */
+    static int estimateSize(BedrockPacket packet) {
+        if (packet instanceof LevelChunkPacket chunkPacket) {
+            return chunkPacket.getData().readableBytes();
+        }
+        if (packet instanceof SubChunkPacket subChunkPacket) {
+            int size = 0;
+            for (SubChunkData data : subChunkPacket.getSubChunks()) {
+                size += data.getData().readableBytes();
+            }
+            return size;
+        }
+        return DEFAULT_BULK_SIZE;
+    }
+
+    /**
+     * @return the runtime ID of the entity a packet spawns or moves, {@link #NO_ENTITY} or {@link #ALL_ENTITIES}
+     */
+    static long entityId(BedrockPacket packet) {
+        if (packet instanceof MovePlayerPacket movePlayerPacket) {
+            return movePlayerPacket.getRuntimeEntityId();
+        }
+        if (packet instanceof MoveEntityDeltaPacket moveEntityDeltaPacket) {
+            return moveEntityDeltaPacket.getRuntimeEntityId();
+        }
+        if (packet instanceof MoveEntityAbsolutePacket moveEntityAbsolutePacket) {
+            return moveEntityAbsolutePacket.getRuntimeEntityId();
+        }
+        if (packet instanceof SetEntityMotionPacket setEntityMotionPacket) {
+            return setEntityMotionPacket.getRuntimeEntityId();
+        }
+        if (packet instanceof AddEntityPacket addEntityPacket) {
+            return addEntityPacket.getRuntimeEntityId();
+        }
+        if (packet instanceof AddPlayerPacket addPlayerPacket) {
+            return addPlayerPacket.getRuntimeEntityId();
+        }
+        if (packet instanceof AddItemEntityPacket addItemEntityPacket) {
+            return addItemEntityPacket.getRuntimeEntityId();
+        }
+        if (packet instanceof AddPaintingPacket addPaintingPacket) {
+            return addPaintingPacket.getRuntimeEntityId();
+        }
+        if (packet instanceof ChangeDimensionPacket) {
+            return ALL_ENTITIES;
+        }
+        return NO_ENTITY;
+    }
+}
@@ -25,39 +25,261 @@
 
 package org.geysermc.geyser.session;
 
+import io.netty.channel.EventLoop;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import io.netty.util.ReferenceCountUtil;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.protocol.bedrock.BedrockServerSession;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodecHelper;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
 import org.geysermc.geyser.network.GeyserBedrockPeer;
 
 import java.net.InetSocketAddress;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-@RequiredArgsConstructor
 public class UpstreamSession {
     @Getter private final BedrockServerSession session;
+    /**
+     * Outgoing packets are flushed in a task on this event loop, so everything sent while translating
+     * a downstream packet or ticking ends up in the same batch
+     */
+    private final EventLoop eventLoop;
     @Getter @Setter
     private boolean initialized = false;
     private Queue<BedrockPacket> postStartGamePackets = new ArrayDeque<>();
 
+    private final Queue<BedrockPacket> pendingPackets = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    /**
+     * Bulk packets, and everything queued after them, waiting for the send budget. Guarded by this session.
+     */
+    private final Queue<BedrockPacket> heldPackets = new ArrayDeque<>();
+    /**
+     * The entities spawned or moved by held packets, which real-time packets may not overtake
+     */
+    private final LongSet heldEntities = new LongOpenHashSet();
+    private final List<BedrockPacket> batch = new ArrayList<>();
+    private final AtomicBoolean retryScheduled = new AtomicBoolean();
+
+    /**
+     * How many bytes of bulk packets may be sent per second, or 0 if unlimited
+     */
+    private final double bulkBytesPerSecond;
+    private double bulkBudget;
+    private long lastBudgetRefill = System.nanoTime();
+
+    private long batchWindowStart = System.nanoTime();
+    private int batchesInWindow = 0;
+    /**
+     * How many batches were flushed in the last full second
+     */
+    @Getter
+    private volatile int batchesPerSecond = 0;
+    @Getter
+    private volatile long flushedBatches = 0;
+    @Getter
+    private volatile long flushedPackets = 0;
+
+    public UpstreamSession(BedrockServerSession session, EventLoop eventLoop, GeyserConfiguration config) {
+        this.session = session;
+        this.eventLoop = eventLoop;
+        this.bulkBytesPerSecond = config.getUpstreamSendBudget() * 1024.0 * (100 - config.getRealTimeTrafficShare()) / 100;
+        this.bulkBudget = this.bulkBytesPerSecond;
+    }
+
+    /**
+     * Queues a packet to be sent with all other packets sent during this event loop task.
+     */
     public void sendPacket(@NonNull BedrockPacket packet) {
-        if (!isClosed()) {
-            session.sendPacket(packet);
+        if (isClosed()) {
+            // Packets such as chunks own a buffer that would otherwise only be released once encoded
+            ReferenceCountUtil.release(packet);
+            return;
+        }
+
+        pendingPackets.add(packet);
+        if (flushScheduled.compareAndSet(false, true)) {
+            eventLoop.execute(this::flush);
         }
     }
 
+    /**
+     * Sends a packet, together with all packets still waiting to be flushed, right away.
+     * This packet is not held back by the send budget.
+     */
     public void sendPacketImmediately(@NonNull BedrockPacket packet) {
-        if (!isClosed()) {
-            session.sendPacketImmediately(packet);
+        if (isClosed()) {
+            ReferenceCountUtil.release(packet);
+            return;
+        }
+
+        flush(packet);
+    }
+
+    /**
+     * Sends all queued packets as a single batch. Bulk packets are sent as far as the send budget allows, and
+     * real-time packets may go ahead of packets it still holds back.
+     */
+    public void flush() {
+        flush(null);
+    }
+
+    private synchronized void flush(@Nullable BedrockPacket immediate) {
+        // Reset first so packets queued from now on schedule another flush
+        flushScheduled.set(false);
+
+        if (isClosed()) {
+            BedrockPacket packet;
+            while ((packet = pendingPackets.poll()) != null) {
+                ReferenceCountUtil.release(packet);
+            }
+            while ((packet = heldPackets.poll()) != null) {
+                ReferenceCountUtil.release(packet);
+            }
+            heldEntities.clear();
+            if (immediate != null) {
+                ReferenceCountUtil.release(immediate);
+            }
+            return;
+        }
+
+        // Packets are only left over from an earlier flush when the send budget ran out
+        boolean heldBack = !heldPackets.isEmpty();
+        BedrockPacket packet;
+        while ((packet = pendingPackets.poll()) != null) {
+            UpstreamPacketPriority priority = UpstreamPacketPriority.of(packet);
+            boolean send;
+            if (heldPackets.isEmpty()) {
+                send = priority != UpstreamPacketPriority.BULK || bulkBytesPerSecond <= 0;
+            } else {
+                send = heldBack && priority == UpstreamPacketPriority.REAL_TIME && mayOvertakeHeld(packet);
+            }
+
+            if (send) {
+                batch.add(packet);
+            } else {
+                hold(packet);
+            }
+        }
+
+        refillBulkBudget();
+        int sent = 0;
+        while ((packet = heldPackets.peek()) != null) {
+            if (UpstreamPacketPriority.of(packet) == UpstreamPacketPriority.BULK) {
+                if (bulkBudget <= 0) {
+                    break;
+                }
+                // May go into debt, so packets larger than the budget are still sent eventually
+                bulkBudget -= UpstreamPacketPriority.estimateSize(packet);
+            }
+            batch.add(heldPackets.poll());
+            sent++;
+        }
+        if (sent > 0) {
+            heldEntities.clear();
+            for (BedrockPacket held : heldPackets) {
+                trackHeldEntity(held);
+            }
+        }
+
+        if (!heldPackets.isEmpty() && retryScheduled.compareAndSet(false, true)) {
+            long delay = Math.max(TimeUnit.MILLISECONDS.toNanos(1), (long) (-bulkBudget / bulkBytesPerSecond * TimeUnit.SECONDS.toNanos(1)));
+            eventLoop.schedule(() -> {
+                retryScheduled.set(false);
+                flush();
+            }, delay, TimeUnit.NANOSECONDS);
+        }
+
+        if (immediate != null) {
+            batch.add(immediate);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        if (!session.getPeer().getChannel().eventLoop().inEventLoop()) {
+            SessionHandoff.UPSTREAM_SEND.record();
+        }
+
+        int count = batch.size();
+        for (int i = 0; i < count - 1; i++) {
+            session.sendPacket(batch.get(i));
+        }
+        // Sending immediately flushes everything queued in the peer along with it
+        session.sendPacketImmediately(batch.get(count - 1));
+        batch.clear();
+
+        flushedBatches++;
+        flushedPackets += count;
+        batchesInWindow++;
+        long now = System.nanoTime();
+        if (now - batchWindowStart >= TimeUnit.SECONDS.toNanos(1)) {
+            batchesPerSecond = batchesInWindow;
+            batchesInWindow = 0;
+            batchWindowStart = now;
+        }
+    }
+
+    private void hold(BedrockPacket packet) {
+        heldPackets.add(packet);
+        trackHeldEntity(packet);
+    }
+
+    private void trackHeldEntity(BedrockPacket packet) {
+        long entityId = UpstreamPacketPriority.entityId(packet);
+        if (entityId != UpstreamPacketPriority.NO_ENTITY) {
+            heldEntities.add(entityId);
         }
     }
 
+    /**
+     * @return if the packet can be sent without waiting for the held packets, as it doesn't depend on any of them
+     */
+    private boolean mayOvertakeHeld(BedrockPacket packet) {
+        return !heldEntities.contains(UpstreamPacketPriority.ALL_ENTITIES)
+            && !heldEntities.contains(UpstreamPacketPriority.entityId(packet));
+    }
+
+    private void refillBulkBudget() {
+        if (bulkBytesPerSecond <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        double seconds = (now - lastBudgetRefill) / (double) TimeUnit.SECONDS.toNanos(1);
+        lastBudgetRefill = now;
+        // At most one second of budget can be saved up
+        bulkBudget = Math.min(bulkBytesPerSecond, bulkBudget + seconds * bulkBytesPerSecond);
+    }
+
+    /**
+     * @return the amount of packets waiting for the send budget
+     */
+    public synchronized int getHeldPacketCount() {
+        return heldPackets.size();
+    }
+
+    /**
+     * @return the average amount of packets in every batch flushed so far
+     */
+    public double getPacketsPerBatch() {
+        long batches = flushedBatches;
+        return batches == 0 ? 0 : (double) flushedPackets / batches;
+    }
+
     public void disconnect(String reason) {
+        // Let everything sent before the disconnect arrive first
+        flush();
         this.session.disconnect(reason);
     }
 
@@ -75,7 +297,7 @@ public class UpstreamSession {
 
         BedrockPacket packet;
         while ((packet = postStartGamePackets.poll()) != null) {
-            session.sendPacket(packet);
+            sendPacket(packet);
         }
         postStartGamePackets = null;
     }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.translator.level.BiomeTranslator;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.BitStorage;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.DataPalette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.GlobalPalette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.Palette;
+import org.geysermc.mcprotocollib.protocol.data.game.chunk.palette.SingletonPalette;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the encoded Bedrock biome data of recently translated sections. Most sections in an area share the same
+ * biome layout, so they only need to be translated once.
+ * <p>
+ * Biome translation depends on the session's biome registry, so this is cleared whenever that changes.
+ */
+public class BiomeCache {
+    private static final int MAX_ENTRIES = 1024;
+
+    private final GeyserSession session;
+    private final Object2ObjectLinkedOpenHashMap<Key, byte[]> encodedBiomes = new Object2ObjectLinkedOpenHashMap<>();
+
+    public BiomeCache(GeyserSession session) {
+        this.session = session;
+    }
+
+    /**
+     * Writes the Bedrock biome data of a Java section to the buffer.
+     */
+    public void writeBiomes(ByteBuf byteBuf, DataPalette biomeData) {
+        Key key = Key.of(biomeData);
+        byte[] encoded = encodedBiomes.getAndMoveToLast(key);
+        if (encoded == null) {
+            ByteBuf buffer = ByteBufAllocator.DEFAULT.heapBuffer();
+            try {
+                BiomeTranslator.toNewBedrockBiome(session, biomeData).writeToNetwork(buffer);
+                encoded = ByteBufUtil.getBytes(buffer);
+            } finally {
+                buffer.release();
+            }
+
+            encodedBiomes.putAndMoveToLast(key, encoded);
+            if (encodedBiomes.size() > MAX_ENTRIES) {
+                encodedBiomes.removeFirst();
+            }
+        }
+        byteBuf.writeBytes(encoded);
+    }
+
+    public void clear() {
+        encodedBiomes.clear();
+    }
+
+    private static final class Key {
+        private static final long[] EMPTY_DATA = new long[0];
+
+        /**
+         * The Java biome palette, or null if the data holds biome IDs directly
+         */
+        private final int[] palette;
+        private final int bits;
+        private final long[] data;
+        private final int hash;
+
+        private Key(int[] palette, int bits, long[] data) {
+            this.palette = palette;
+            this.bits = bits;
+            this.data = data;
+            this.hash = 31 * (31 * bits + Arrays.hashCode(palette)) + Arrays.hashCode(data);
+        }
+
+        static Key of(DataPalette biomeData) {
+            Palette palette = biomeData.getPalette();
+            if (palette instanceof SingletonPalette) {
+                return new Key(new int[] {palette.idToState(0)}, 0, EMPTY_DATA);
+            }
+
+            BitStorage storage = biomeData.getStorage();
+            if (palette instanceof GlobalPalette) {
+                return new Key(null, storage.getBitsPerEntry(), storage.getData().clone());
+            }
+
+            int[] javaPalette = new int[palette.size()];
+            for (int i = 0; i < javaPalette.length; i++) {
+                javaPalette[i] = palette.idToState(i);
+            }
+            return new Key(javaPalette, storage.getBitsPerEntry(), storage.getData().clone());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return hash == other.hash && bits == other.bits && Arrays.equals(palette, other.palette) && Arrays.equals(data, other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
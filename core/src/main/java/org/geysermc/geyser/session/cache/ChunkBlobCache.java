@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session.cache;
+
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
+import lombok.Getter;
+import lombok.Setter;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheBlobStatusPacket;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheMissResponsePacket;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.util.XXHash64;
+
+/**
+ * Tracks chunk data sent through the Bedrock client blob cache.
+ * <p>
+ * If the client supports it, chunk sections and biomes are not sent in full. Instead, each one is referenced by the
+ * xxHash64 of its serialized form, and the client answers with a {@link ClientCacheBlobStatusPacket} listing which
+ * blobs it already has stored and which ones are missing. Only the missing blobs are then sent over.
+ */
+public class ChunkBlobCache {
+    /**
+     * How many blobs can be waiting on a client response before new chunks are sent without the blob cache.
+     * This should only be reached if the client stops answering for some reason.
+     */
+    private static final int MAX_PENDING_BLOBS = 16384;
+    /**
+     * How many bytes of blobs are kept after the client responded for every chunk referencing them.
+     */
+    private static final int MAX_RECENT_BLOB_BYTES = 1024 * 1024;
+
+    private final GeyserSession session;
+    private final boolean enabled;
+    /**
+     * Blobs that have been referenced in a chunk, but have not been reported as cached or missing by the client yet.
+     * The client reports a blob for every chunk that references it.
+     */
+    private final Long2ObjectMap<PendingBlob> pendingBlobs = new Long2ObjectOpenHashMap<>();
+    /**
+     * Blobs the client has responded to for every reference, oldest first, so they can still be sent if it asks again
+     */
+    private final Long2ObjectLinkedOpenHashMap<byte[]> recentBlobs = new Long2ObjectLinkedOpenHashMap<>();
+    private int recentBlobBytes;
+
+    /**
+     * Set from the client's ClientCacheStatusPacket. Not all platforms support the blob cache.
+     */
+    @Setter
+    private volatile boolean clientSupported;
+
+    /**
+     * The amount of blobs the client reported as already cached, and therefore did not have to be sent.
+     */
+    @Getter
+    private long cachedBlobs;
+    /**
+     * The amount of blobs that had to be sent in full.
+     */
+    @Getter
+    private long missedBlobs;
+    /**
+     * The total size of all blobs the client already had cached.
+     */
+    @Getter
+    private long savedBytes;
+
+    public ChunkBlobCache(GeyserSession session) {
+        this.session = session;
+        this.enabled = session.getGeyser().getConfig().isEnableClientBlobCache();
+    }
+
+    /**
+     * @return if the next chunk should be sent using the blob cache
+     */
+    public boolean isActive() {
+        return enabled && clientSupported && pendingBlobs.size() < MAX_PENDING_BLOBS;
+    }
+
+    /**
+     * Registers a serialized chunk section or biome blob that is about to be referenced in a LevelChunkPacket.
+     *
+     * @return the blob ID that should be sent to the client
+     */
+    public long addBlob(byte[] blob) {
+        long id = XXHash64.hash(blob);
+        PendingBlob pending = pendingBlobs.get(id);
+        if (pending == null) {
+            pendingBlobs.put(id, new PendingBlob(blob));
+        } else {
+            // Identical data may be referenced more than once before the client responds, e.g. two chunks of open ocean
+            pending.references++;
+        }
+        return id;
+    }
+
+    public void onBlobStatus(ClientCacheBlobStatusPacket packet) {
+        LongIterator iterator = packet.getAcks().iterator();
+        while (iterator.hasNext()) {
+            byte[] blob = release(iterator.nextLong());
+            if (blob != null) {
+                cachedBlobs++;
+                savedBytes += blob.length;
+            }
+        }
+
+        LongList missing = packet.getNaks();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        ClientCacheMissResponsePacket response = new ClientCacheMissResponsePacket();
+        iterator = missing.iterator();
+        while (iterator.hasNext()) {
+            long id = iterator.nextLong();
+            byte[] blob = release(id);
+            if (blob == null) {
+                blob = recentBlobs.getAndMoveToLast(id);
+            }
+            if (blob == null) {
+                session.getGeyser().getLogger().debug("Client " + session.bedrockUsername() + " requested unknown chunk blob " + Long.toHexString(id));
+                continue;
+            }
+            missedBlobs++;
+            response.getBlobs().put(id, Unpooled.wrappedBuffer(blob));
+        }
+
+        if (!response.getBlobs().isEmpty()) {
+            session.sendUpstreamPacket(response);
+        }
+    }
+
+    /**
+     * Removes one reference to a pending blob.
+     *
+     * @return the blob, or null if it was not pending
+     */
+    private byte @Nullable [] release(long id) {
+        PendingBlob blob = pendingBlobs.get(id);
+        if (blob == null) {
+            return null;
+        }
+        if (--blob.references == 0) {
+            pendingBlobs.remove(id);
+            if (recentBlobs.putAndMoveToLast(id, blob.data) == null) {
+                recentBlobBytes += blob.data.length;
+                while (recentBlobBytes > MAX_RECENT_BLOB_BYTES) {
+                    recentBlobBytes -= recentBlobs.removeFirst().length;
+                }
+            }
+        }
+        return blob.data;
+    }
+
+    /**
+     * Forgets all blobs the client has not responded to yet. The client drops the chunks that referenced them when
+     * switching dimensions, so it may never do so.
+     */
+    public void clear() {
+        pendingBlobs.clear();
+        recentBlobs.clear();
+        recentBlobBytes = 0;
+    }
+
+    /**
+     * @return the amount of blobs waiting on a client response
+     */
+    int pendingBlobCount() {
+        return pendingBlobs.size();
+    }
+
+    private static final class PendingBlob {
+        private final byte[] data;
+        private int references = 1;
+
+        private PendingBlob(byte[] data) {
+            this.data = data;
+        }
+    }
+}
@@ -27,35 +27,124 @@ package org.geysermc.geyser.session.cache;
 
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import lombok.Getter;
 import lombok.Setter;
+import org.cloudburstmc.math.vector.Vector2i;
 import org.geysermc.geyser.level.block.type.Block;
+import org.geysermc.geyser.level.chunk.CompactChunkSection;
 import org.geysermc.geyser.level.chunk.GeyserChunk;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.util.MathUtils;
-import org.geysermc.mcprotocollib.protocol.data.game.chunk.DataPalette;
 
 public class ChunkCache {
+    /**
+     * The fraction of the memory budget to evict down to once it is exceeded.
+     */
+    private static final double EVICTION_TARGET = 0.9;
+    /**
+     * The minimum time between two eviction debug messages, in milliseconds.
+     */
+    private static final long EVICTION_LOG_INTERVAL = 10_000;
+
+    private final GeyserSession session;
     private final boolean cache;
     private final Long2ObjectMap<GeyserChunk> chunks;
+    /**
+     * The maximum amount of memory the cached chunks may use, in bytes, or 0 if unlimited.
+     */
+    private final long memoryBudget;
 
     @Setter
     private int minY;
     @Setter
     private int heightY;
 
+    /**
+     * The approximate amount of memory used by all cached chunks, in bytes.
+     */
+    @Getter
+    private volatile long memoryUsage;
+    /**
+     * The amount of chunks removed from the cache to stay within the memory budget.
+     */
+    @Getter
+    private volatile long evictedChunks;
+    private long lastEvictionLog;
+
     public ChunkCache(GeyserSession session) {
+        this.session = session;
         this.cache = !session.getGeyser().getWorldManager().hasOwnChunkCache(); // To prevent Spigot from initializing
         chunks = cache ? new Long2ObjectOpenHashMap<>() : null;
+        this.memoryBudget = session.getGeyser().getConfig().getChunkCacheMemoryBudget() * 1024L * 1024L;
     }
 
-    public void addToCache(int x, int z, DataPalette[] chunks) {
+    /**
+     * @return true if chunks added to this cache are actually stored
+     */
+    public boolean isCaching() {
+        return cache;
+    }
+
+    public void addToCache(int x, int z, CompactChunkSection[] sections) {
         if (!cache) {
             return;
         }
 
         long chunkPosition = MathUtils.chunkPositionToLong(x, z);
-        GeyserChunk geyserChunk = GeyserChunk.from(chunks);
-        this.chunks.put(chunkPosition, geyserChunk);
+        GeyserChunk geyserChunk = GeyserChunk.from(sections);
+        GeyserChunk previous = this.chunks.put(chunkPosition, geyserChunk);
+        if (previous != null) {
+            memoryUsage -= previous.memoryUsage();
+        }
+        memoryUsage += geyserChunk.memoryUsage();
+
+        if (memoryBudget > 0 && memoryUsage > memoryBudget) {
+            evictFarthestChunks(chunkPosition);
+        }
+    }
+
+    /**
+     * Removes the chunks farthest away from the player until the cache uses at most {@link #EVICTION_TARGET} of its
+     * memory budget, so that chunks arriving right after don't immediately need another eviction. Blocks in evicted
+     * chunks are treated as air, just like any other chunk that hasn't been received.
+     *
+     * @param keptPosition the chunk that was just added, which is never evicted
+     */
+    private void evictFarthestChunks(long keptPosition) {
+        Vector2i center = session.getLastChunkPosition();
+        int centerX = center == null ? 0 : center.getX();
+        int centerZ = center == null ? 0 : center.getY();
+
+        long[] positions = new long[chunks.size() - 1];
+        int count = 0;
+        for (long position : chunks.keySet()) {
+            if (position != keptPosition) {
+                positions[count++] = position;
+            }
+        }
+        // Farthest first
+        LongArrays.quickSort(positions, 0, count, (a, b) -> Long.compare(distanceSquared(b, centerX, centerZ), distanceSquared(a, centerX, centerZ)));
+
+        long target = (long) (memoryBudget * EVICTION_TARGET);
+        int evicted = 0;
+        while (memoryUsage > target && evicted < count) {
+            memoryUsage -= chunks.remove(positions[evicted++]).memoryUsage();
+        }
+        evictedChunks += evicted;
+
+        long now = System.currentTimeMillis();
+        if (now - lastEvictionLog >= EVICTION_LOG_INTERVAL) {
+            lastEvictionLog = now;
+            session.getGeyser().getLogger().debug("Evicted chunks from the chunk cache of " + session.bedrockUsername()
+                    + " to stay within its memory budget");
+        }
+    }
+
+    private static long distanceSquared(long position, int centerX, int centerZ) {
+        long dx = (int) (position >> 32) - centerX;
+        long dz = (int) position - centerZ;
+        return dx * dx + dz * dz;
     }
 
     /**
@@ -76,26 +165,14 @@ public class ChunkCache {
             return;
         }
 
-        if (y < minY || ((y - minY) >> 4) > chunk.sections().length - 1) {
+        if (y < minY || ((y - minY) >> 4) > chunk.sectionCount() - 1) {
             // Y likely goes above or below the height limit of this world
             return;
         }
 
-        DataPalette palette = chunk.sections()[(y - minY) >> 4];
-        if (palette == null) {
-            if (block != Block.JAVA_AIR_ID) {
-                // A previously empty chunk, which is no longer empty as a block has been added to it
-                palette = DataPalette.createForChunk();
-                // Fixes the chunk assuming that all blocks is the `block` variable we are updating. /shrug
-                palette.getPalette().stateToId(Block.JAVA_AIR_ID);
-                chunk.sections()[(y - minY) >> 4] = palette;
-            } else {
-                // Nothing to update
-                return;
-            }
-        }
-
-        palette.set(x & 0xF, y & 0xF, z & 0xF, block);
+        long previousUsage = chunk.memoryUsage();
+        chunk.set((y - minY) >> 4, x & 0xF, y & 0xF, z & 0xF, block);
+        memoryUsage += chunk.memoryUsage() - previousUsage;
     }
 
     public int getBlockAt(int x, int y, int z) {
@@ -108,17 +185,36 @@ public class ChunkCache {
             return Block.JAVA_AIR_ID;
         }
 
-        if (y < minY || ((y - minY) >> 4) > column.sections().length - 1) {
+        if (y < minY || ((y - minY) >> 4) > column.sectionCount() - 1) {
             // Y likely goes above or below the height limit of this world
             return Block.JAVA_AIR_ID;
         }
 
-        DataPalette chunk = column.sections()[(y - minY) >> 4];
-        if (chunk != null) {
-            return chunk.get(x & 0xF, y & 0xF, z & 0xF);
+        return column.get((y - minY) >> 4, x & 0xF, y & 0xF, z & 0xF);
+    }
+
+    /**
+     * Copies the Java block states of a cached section.
+     *
+     * @param sectionY the Java section Y, which may be negative
+     * @param blocks the array to fill, in YZX order
+     * @return false if this section isn't cached
+     */
+    public boolean copySection(int chunkX, int sectionY, int chunkZ, int[] blocks) {
+        if (!cache) {
+            return false;
+        }
+
+        GeyserChunk column = this.getChunk(chunkX, chunkZ);
+        int sectionIndex = sectionY - (minY >> 4);
+        if (column == null || sectionIndex < 0 || sectionIndex >= column.sectionCount()) {
+            return false;
         }
 
-        return Block.JAVA_AIR_ID;
+        for (int yzx = 0; yzx < blocks.length; yzx++) {
+            blocks[yzx] = column.get(sectionIndex, yzx & 0xF, (yzx >> 8) & 0xF, (yzx >> 4) & 0xF);
+        }
+        return true;
     }
 
     public void removeChunk(int chunkX, int chunkZ) {
@@ -127,7 +223,10 @@ public class ChunkCache {
         }
 
         long chunkPosition = MathUtils.chunkPositionToLong(chunkX, chunkZ);
-        chunks.remove(chunkPosition);
+        GeyserChunk removed = chunks.remove(chunkPosition);
+        if (removed != null) {
+            memoryUsage -= removed.memoryUsage();
+        }
     }
 
     /**
@@ -141,6 +240,14 @@ public class ChunkCache {
         }
 
         chunks.clear();
+        memoryUsage = 0;
+    }
+
+    /**
+     * @return the amount of chunks currently cached
+     */
+    public int size() {
+        return cache ? chunks.size() : 0;
     }
 
     public int getChunkMinY() {
@@ -136,6 +136,9 @@ public final class RegistryCache {
             RegistryLoader reader = READERS.get(registryKey);
             if (reader != null) {
                 reader.load(session, registries.get(registryKey), packet.getEntries());
+                if (registryKey == JavaRegistries.BIOME) {
+                    session.getBiomeCache().clear();
+                }
             } else {
                 throw new IllegalStateException("Expected reader for registry " + registryKey);
             }
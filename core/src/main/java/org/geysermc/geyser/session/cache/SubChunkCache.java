@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.cloudburstmc.math.vector.Vector3i;
+import org.cloudburstmc.nbt.NBTOutputStream;
+import org.cloudburstmc.nbt.NbtMap;
+import org.cloudburstmc.nbt.NbtUtils;
+import org.cloudburstmc.protocol.bedrock.data.HeightMapDataType;
+import org.cloudburstmc.protocol.bedrock.data.SubChunkData;
+import org.cloudburstmc.protocol.bedrock.data.SubChunkRequestResult;
+import org.cloudburstmc.protocol.bedrock.packet.SubChunkPacket;
+import org.cloudburstmc.protocol.bedrock.packet.SubChunkRequestPacket;
+import org.geysermc.geyser.level.BedrockDimension;
+import org.geysermc.geyser.level.block.type.Block;
+import org.geysermc.geyser.level.block.type.BlockState;
+import org.geysermc.geyser.level.chunk.BlockStorage;
+import org.geysermc.geyser.level.chunk.GeyserChunkSection;
+import org.geysermc.geyser.level.chunk.TranslatedChunk;
+import org.geysermc.geyser.registry.BlockRegistries;
+import org.geysermc.geyser.registry.type.BlockMappings;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.util.ChunkUtils;
+import org.geysermc.geyser.util.MathUtils;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Holds translated Bedrock chunk columns when sub-chunk requests are enabled.
+ * <p>
+ * In this mode, a LevelChunkPacket only tells the client that a column exists. The client then sends
+ * {@link SubChunkRequestPacket}s for the sections it actually wants to render, which are encoded and answered from
+ * here. Sections far above or below the player are often never requested, and so never encoded.
+ */
+public class SubChunkCache {
+    /**
+     * Responses are split into packets of this many sub-chunks, so the nearest sub-chunks arrive first.
+     */
+    private static final int MAX_SUB_CHUNKS_PER_PACKET = 16;
+
+    private final GeyserSession session;
+    private final boolean enabled;
+    private final Long2ObjectMap<Column> columns;
+
+    public SubChunkCache(GeyserSession session) {
+        this.session = session;
+        this.enabled = session.getGeyser().getConfig().isUseSubChunkRequests();
+        this.columns = enabled ? new Long2ObjectOpenHashMap<>() : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param chunk the translated sections of the column; must not be modified afterwards
+     * @param blockEntities the Bedrock block entities of the column, which are sent along with their section
+     */
+    public void addColumn(int chunkX, int chunkZ, BedrockDimension dimension, TranslatedChunk chunk, List<NbtMap> blockEntities) {
+        int sectionCount = chunk.sectionCount();
+        int minSectionY = dimension.minY() >> 4;
+
+        @SuppressWarnings("unchecked")
+        List<NbtMap>[] sectionBlockEntities = new List[sectionCount];
+        for (NbtMap blockEntity : blockEntities) {
+            int index = (blockEntity.getInt("y") >> 4) - minSectionY;
+            if (index < 0 || index >= sectionCount) {
+                continue;
+            }
+            if (sectionBlockEntities[index] == null) {
+                sectionBlockEntities[index] = new ObjectArrayList<>();
+            }
+            sectionBlockEntities[index].add(blockEntity);
+        }
+
+        columns.put(MathUtils.chunkPositionToLong(chunkX, chunkZ), new Column(dimension, chunk, sectionBlockEntities));
+    }
+
+    public void removeColumn(int chunkX, int chunkZ) {
+        if (!enabled) {
+            return;
+        }
+
+        columns.remove(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+    }
+
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+
+        columns.clear();
+    }
+
+    /**
+     * The cached sections only hold the blocks as they were when the chunk arrived, and the client may request a
+     * section again after dropping it. Sections with block updates are translated again from the {@link ChunkCache}
+     * the next time they are requested.
+     */
+    public void onBlockUpdate(Vector3i position, BlockState blockState) {
+        if (!enabled) {
+            return;
+        }
+
+        Column column = columns.get(MathUtils.chunkPositionToLong(position.getX() >> 4, position.getZ() >> 4));
+        if (column == null) {
+            return;
+        }
+
+        int index = (position.getY() >> 4) - column.minSectionY;
+        if (index >= 0 && index < column.chunk.sectionCount()) {
+            column.dirtySections.set(index);
+            if ((position.getY() & 0xF) == 15 && index + 1 < column.chunk.sectionCount() && session.getBlockMappings().hasExtendedCollisionBoxes()) {
+                // The collision of this block may extend into the section above
+                column.dirtySections.set(index + 1);
+            }
+        }
+    }
+
+    public void handleRequest(SubChunkRequestPacket packet) {
+        Vector3i center = packet.getSubChunkPosition();
+        Vector3i playerPosition = session.getPlayerEntity().getPosition().toInt();
+        int playerSectionX = playerPosition.getX() >> 4;
+        int playerSectionY = playerPosition.getY() >> 4;
+        int playerSectionZ = playerPosition.getZ() >> 4;
+
+        // Serve the closest sub-chunks first, and prefer those at the player's height when equally close
+        List<Vector3i> offsets = new ObjectArrayList<>(packet.getPositionOffsets());
+        offsets.sort(Comparator.<Vector3i>comparingInt(offset -> {
+            int dx = center.getX() + offset.getX() - playerSectionX;
+            int dz = center.getZ() + offset.getZ() - playerSectionZ;
+            return dx * dx + dz * dz;
+        }).thenComparingInt(offset -> Math.abs(center.getY() + offset.getY() - playerSectionY)));
+
+        boolean validDimension = packet.getDimension() == session.getBedrockDimension().bedrockId();
+
+        SubChunkPacket subChunkPacket = null;
+        for (Vector3i offset : offsets) {
+            if (subChunkPacket == null) {
+                subChunkPacket = new SubChunkPacket();
+                subChunkPacket.setDimension(packet.getDimension());
+                subChunkPacket.setCenterPosition(center);
+                subChunkPacket.setCacheEnabled(false);
+            }
+
+            SubChunkData data = new SubChunkData();
+            data.setPosition(offset);
+            data.setData(Unpooled.EMPTY_BUFFER);
+            data.setHeightMapType(HeightMapDataType.NO_DATA);
+            data.setHeightMapData(Unpooled.EMPTY_BUFFER);
+
+            Column column;
+            if (!validDimension) {
+                data.setResult(SubChunkRequestResult.INVALID_DIMENSION);
+            } else if ((column = columns.get(MathUtils.chunkPositionToLong(center.getX() + offset.getX(), center.getZ() + offset.getZ()))) == null
+                    || column.dimension.bedrockId() != packet.getDimension()) {
+                data.setResult(SubChunkRequestResult.CHUNK_NOT_FOUND);
+            } else {
+                int index = center.getY() + offset.getY() - column.minSectionY;
+                if (index < 0 || index >= column.chunk.sectionCount()) {
+                    data.setResult(SubChunkRequestResult.INDEX_OUT_OF_BOUNDS);
+                } else {
+                    column.refresh(session, index, center.getX() + offset.getX(), center.getZ() + offset.getZ());
+                    if (column.isEmpty(index)) {
+                        data.setResult(SubChunkRequestResult.SUCCESS_ALL_AIR);
+                    } else {
+                        try {
+                            data.setData(column.encode(index));
+                            data.setResult(SubChunkRequestResult.SUCCESS);
+                        } catch (IOException e) {
+                            session.getGeyser().getLogger().error("IO error while encoding sub-chunk", e);
+                            data.setResult(SubChunkRequestResult.CHUNK_NOT_FOUND);
+                        }
+                    }
+                }
+            }
+
+            subChunkPacket.getSubChunks().add(data);
+            if (subChunkPacket.getSubChunks().size() >= MAX_SUB_CHUNKS_PER_PACKET) {
+                session.sendUpstreamPacket(subChunkPacket);
+                subChunkPacket = null;
+            }
+        }
+
+        if (subChunkPacket != null) {
+            session.sendUpstreamPacket(subChunkPacket);
+        }
+    }
+
+    private static final class Column {
+        private final BedrockDimension dimension;
+        private final int minSectionY;
+        private final TranslatedChunk chunk;
+        private final List<NbtMap>[] sectionBlockEntities;
+        /**
+         * Sections that had block updates since they were last translated.
+         */
+        private final BitSet dirtySections = new BitSet();
+        /**
+         * Sections translated again after block updates, by section index. Null until the first one is needed.
+         */
+        private GeyserChunkSection[] updatedSections;
+
+        private Column(BedrockDimension dimension, TranslatedChunk chunk, List<NbtMap>[] sectionBlockEntities) {
+            this.dimension = dimension;
+            this.minSectionY = dimension.minY() >> 4;
+            this.chunk = chunk;
+            this.sectionBlockEntities = sectionBlockEntities;
+        }
+
+        /**
+         * Translates a section with block updates again from the chunk cache. If the chunk cache doesn't hold this
+         * section, the last translation is sent instead.
+         */
+        private void refresh(GeyserSession session, int index, int chunkX, int chunkZ) {
+            if (!dirtySections.get(index)) {
+                return;
+            }
+            dirtySections.clear(index);
+
+            int sectionY = index + minSectionY;
+            int[] javaBlocks = new int[BlockStorage.SIZE];
+            if (!session.getChunkCache().copySection(chunkX, sectionY, chunkZ, javaBlocks)) {
+                return;
+            }
+
+            if (updatedSections == null) {
+                updatedSections = new GeyserChunkSection[chunk.sectionCount()];
+            }
+            updatedSections[index] = translateSection(session, javaBlocks, chunkX, sectionY, chunkZ);
+        }
+
+        private boolean isEmpty(int index) {
+            if (updatedSections != null && updatedSections[index] != null) {
+                return updatedSections[index].isEmpty();
+            }
+            return chunk.isEmpty(index);
+        }
+
+        private ByteBuf encode(int index) throws IOException {
+            ByteBuf buffer = Unpooled.buffer(ChunkUtils.EMPTY_CHUNK_SECTION_SIZE);
+            if (updatedSections != null && updatedSections[index] != null) {
+                updatedSections[index].writeToNetwork(buffer);
+            } else {
+                chunk.writeSection(buffer, index, dimension);
+            }
+            if (sectionBlockEntities[index] != null) {
+                NBTOutputStream nbtStream = NbtUtils.createNetworkWriter(new ByteBufOutputStream(buffer));
+                for (NbtMap blockEntity : sectionBlockEntities[index]) {
+                    nbtStream.writeTag(blockEntity);
+                }
+            }
+            return buffer;
+        }
+
+        /**
+         * Translates a single section block by block, the same way a chunk with a global palette is translated.
+         */
+        private static GeyserChunkSection translateSection(GeyserSession session, int[] javaBlocks, int chunkX, int sectionY, int chunkZ) {
+            BlockMappings mappings = session.getBlockMappings();
+            boolean useExtendedCollisions = mappings.hasExtendedCollisionBoxes();
+
+            GeyserChunkSection section = new GeyserChunkSection(mappings.getBedrockAir().getRuntimeId(), sectionY);
+            for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
+                int javaId = javaBlocks[yzx];
+                int xzy = ChunkUtils.indexYZXtoXZY(yzx);
+                section.getBlockStorageArray()[0].setFullBlock(xzy, mappings.getBedrockBlockId(javaId));
+
+                if (BlockRegistries.WATERLOGGED.get().get(javaId)) {
+                    section.getBlockStorageArray()[1].setFullBlock(xzy, mappings.getBedrockWater().getRuntimeId());
+                }
+
+                if (useExtendedCollisions && javaId == Block.JAVA_AIR_ID) {
+                    // Blocks with collisions taller than a block extend into the air above them
+                    int javaIdBelow = yzx >= 0x100 ? javaBlocks[yzx - 0x100]
+                            : session.getChunkCache().getBlockAt((chunkX << 4) + (yzx & 0xF), (sectionY << 4) - 1, (chunkZ << 4) + ((yzx >> 4) & 0xF));
+                    int extendedCollisionId = mappings.getExtendedCollisionRuntimeId(javaIdBelow);
+                    if (extendedCollisionId != -1) {
+                        section.getBlockStorageArray()[0].setFullBlock(xzy, extendedCollisionId);
+                    }
+                }
+            }
+            return section;
+        }
+    }
+}
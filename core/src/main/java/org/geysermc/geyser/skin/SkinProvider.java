@@ -60,7 +60,6 @@ import java.util.concurrent.*;
 import java.util.function.Predicate;
 
 public class SkinProvider {
-    private static ExecutorService EXECUTOR_SERVICE;
 
     static final Skin EMPTY_SKIN;
     static final Cape EMPTY_CAPE = new Cape("", "no-cape", ByteArrays.EMPTY_ARRAY, true);
@@ -132,17 +131,7 @@ public class SkinProvider {
     }
 
     public static ExecutorService getExecutorService() {
-        if (EXECUTOR_SERVICE == null) {
-            EXECUTOR_SERVICE = Executors.newFixedThreadPool(14);
-        }
-        return EXECUTOR_SERVICE;
-    }
-
-    public static void shutdown() {
-        if (EXECUTOR_SERVICE != null) {
-            EXECUTOR_SERVICE.shutdown();
-            EXECUTOR_SERVICE = null;
-        }
+        return GeyserImpl.getInstance().getBlockingExecutor();
     }
 
     public static void registerCacheImageTask(GeyserImpl geyser) {
@@ -43,6 +43,8 @@ import org.geysermc.geyser.level.chunk.bitarray.SingletonBitArray;
 import org.geysermc.geyser.registry.Registries;
 import org.geysermc.geyser.session.GeyserSession;
 
+import java.util.Arrays;
+
 // Array index formula by https://wiki.vg/Chunk_Format
 public class BiomeTranslator {
 
@@ -60,64 +62,80 @@ public class BiomeTranslator {
         if (palette instanceof SingletonPalette) {
             int biomeId = biomeTranslations.byId(palette.idToState(0));
             return new BlockStorage(SingletonBitArray.INSTANCE, IntLists.singleton(biomeId));
-        } else {
-            BlockStorage storage;
-            if (!(palette instanceof GlobalPalette)) {
-                // Prevent resizing by allocating what we can ahead of time
-                BitStorage bitStorage = biomeData.getStorage();
-                int size = palette.size();
-                BitArray bitArray = BitArrayVersion.forBitsCeil(bitStorage.getBitsPerEntry())
-                        .createArray(BlockStorage.SIZE);
+        }
 
-                IntList bedrockPalette = new IntArrayList(size);
+        BitStorage bitStorage = biomeData.getStorage();
+        IntList bedrockPalette;
+        // The Bedrock palette index of each 4 * 4 * 4 biome section
+        int[] biomes = new int[64];
+        if (!(palette instanceof GlobalPalette)) {
+            int size = palette.size();
+            bedrockPalette = new IntArrayList(size);
+            for (int i = 0; i < size; i++) {
+                int javaId = palette.idToState(i);
+                bedrockPalette.add(biomeTranslations.byId(javaId).intValue());
+            }
 
-                for (int i = 0; i < size; i++) {
-                    int javaId = palette.idToState(i);
+            for (int i = 0; i < 64; i++) {
+                biomes[i] = bitStorage.get(i);
+            }
+        } else {
+            bedrockPalette = new IntArrayList();
+            // Only look up every Java biome once
+            IntList javaIds = new IntArrayList();
+            for (int i = 0; i < 64; i++) {
+                int javaId = palette.idToState(bitStorage.get(i));
+                int idx = javaIds.indexOf(javaId);
+                if (idx == -1) {
+                    idx = javaIds.size();
+                    javaIds.add(javaId);
+                    // Get the Bedrock biome ID override
                     bedrockPalette.add(biomeTranslations.byId(javaId).intValue());
                 }
+                biomes[i] = idx;
+            }
+        }
 
-                // Each section of biome corresponding to a chunk section contains 4 * 4 * 4 entries
-                for (int i = 0; i < 64; i++) {
-                    int idx = bitStorage.get(i);
-                    int x = i & 3;
-                    int y = (i >> 4) & 3;
-                    int z = (i >> 2) & 3;
-                    // Convert biome coordinates into block coordinates
-                    // Bedrock expects a full 4096 blocks
-                    multiplyIdToStorage(bitArray, idx, x, y, z);
-                }
+        return new BlockStorage(expandBiomes(biomes, bedrockPalette.size()), bedrockPalette);
+    }
 
-                storage = new BlockStorage(bitArray, bedrockPalette);
-            } else {
-                storage = new BlockStorage(0);
+    /**
+     * Converts biome coordinates into block coordinates, as Bedrock expects a full 4096 blocks. Since every biome
+     * covers four blocks along the Y axis, whole columns of 16 blocks are built once and copied word by word.
+     *
+     * @param biomes the palette index of each biome, in Java's YZX order
+     */
+    private static BitArray expandBiomes(int[] biomes, int paletteSize) {
+        // Only use versions without padding, so every column starts at a word boundary
+        int bits = 1;
+        while ((1 << bits) < paletteSize) {
+            bits <<= 1;
+        }
+        BitArrayVersion version = BitArrayVersion.forBitsCeil(bits);
 
-                // Each section of biome corresponding to a chunk section contains 4 * 4 * 4 entries
-                for (int i = 0; i < 64; i++) {
-                    int javaId = palette.idToState(biomeData.getStorage().get(i));
-                    int x = i & 3;
-                    int y = (i >> 4) & 3;
-                    int z = (i >> 2) & 3;
-                    // Get the Bedrock biome ID override
-                    int biomeId = biomeTranslations.byId(javaId);
-                    int idx = storage.idFor(biomeId);
-                    // Convert biome coordinates into block coordinates
-                    // Bedrock expects a full 4096 blocks
-                    // Implementation note: storage.getBitArray() must be called and not stored - if the palette
-                    // grows, then the instance can change
-                    multiplyIdToStorage(storage.getBitArray(), idx, x, y, z);
+        int[] words = new int[BlockStorage.SIZE * bits / Integer.SIZE];
+        // With one bit per entry, two columns fit in a single word
+        int columnWords = Math.max(1, bits / 2);
+        int[] column = new int[columnWords];
+        for (int x = 0; x < 4; x++) {
+            for (int z = 0; z < 4; z++) {
+                Arrays.fill(column, 0);
+                for (int blockY = 0; blockY < 16; blockY++) {
+                    int bitIndex = blockY * bits;
+                    column[bitIndex >> 5] |= biomes[(blockY >> 2) << 4 | z << 2 | x] << (bitIndex & 31);
+                }
+                if (bits == 1) {
+                    column[0] |= column[0] << 16;
                 }
-            }
-            return storage;
-        }
-    }
 
-    private static void multiplyIdToStorage(final BitArray bitArray, final int idx, final int x, final int y, final int z) {
-        for (int blockX = x << 2; blockX < (x << 2) + 4; blockX++) {
-            for (int blockZ = z << 2; blockZ < (z << 2) + 4; blockZ++) {
-                for (int blockY = y << 2; blockY < (y << 2) + 4; blockY++) {
-                    bitArray.set((blockX << 8) | (blockZ << 4) | blockY, idx);
+                for (int blockX = x << 2; blockX < (x << 2) + 4; blockX++) {
+                    for (int blockZ = z << 2; blockZ < (z << 2) + 4; blockZ += bits == 1 ? 2 : 1) {
+                        int wordIndex = ((blockX << 8) | (blockZ << 4)) * bits >> 5;
+                        System.arraycopy(column, 0, words, wordIndex, columnWords);
+                    }
                 }
             }
         }
+        return version.createArray(BlockStorage.SIZE, words);
     }
 }
@@ -39,4 +39,12 @@ public abstract class PacketTranslator<T> {
     public boolean shouldExecuteInEventLoop() {
         return true;
     }
+
+    /**
+     * Determines if this packet must wait for chunks that are still being translated, because it depends on or
+     * modifies the world. Packets that do are handled once all chunks received before them have been sent.
+     */
+    public boolean shouldWaitForChunks() {
+        return false;
+    }
 }
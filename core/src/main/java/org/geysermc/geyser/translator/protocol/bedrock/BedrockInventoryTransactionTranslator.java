@@ -194,7 +194,7 @@ public class BedrockInventoryTransactionTranslator extends PacketTranslator<Inve
                         }
 
                         // Check if this is a double placement due to an extended collision block
-                        if (!session.getBlockMappings().getExtendedCollisionBoxes().isEmpty()) {
+                        if (session.getBlockMappings().hasExtendedCollisionBoxes()) {
                             Vector3i belowBlockPos = null;
                             switch (packet.getBlockFace()) {
                                 case 1 -> belowBlockPos = blockPos.add(0, -2, 0);
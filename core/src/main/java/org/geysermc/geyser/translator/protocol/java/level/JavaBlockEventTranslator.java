@@ -172,4 +172,9 @@ public class JavaBlockEventTranslator extends PacketTranslator<ClientboundBlockE
     private static boolean isSticky(BlockState state) {
         return state.is(Blocks.STICKY_PISTON) || (state.is(Blocks.MOVING_PISTON) && "sticky".equals(state.getValue(Properties.PISTON_TYPE)));
     }
+
+    @Override
+    public boolean shouldWaitForChunks() {
+        return true;
+    }
 }
@@ -106,4 +106,9 @@ public class JavaBlockUpdateTranslator extends PacketTranslator<ClientboundBlock
         session.setInteracting(false);
         BlockSoundInteractionTranslator.handleBlockInteraction(session, lastInteractPos.toFloat(), state);
     }
+
+    @Override
+    public boolean shouldWaitForChunks() {
+        return true;
+    }
 }
@@ -37,8 +37,15 @@ public class JavaChunkBatchFinishedTranslator extends PacketTranslator<Clientbou
     @Override
     public void translate(GeyserSession session, ClientboundChunkBatchFinishedPacket packet) {
         // server just sent a batch of LevelChunkWithLightPackets
-        // the vanilla client uses a ChunkBatchSizeCalculator to calculate the desiredChunksPerTick,
-        // but currently we just send an arbitrary value. server clamps the value between 0.01 and 64.
-        session.sendDownstreamGamePacket(new ServerboundChunkBatchReceivedPacket(20));
+        // like the vanilla client, tell it how many chunks per tick we can handle. server clamps the value between 0.01 and 64.
+        float desiredChunksPerTick = session.getChunkBatchSizeCalculator().onBatchFinished(packet.getBatchSize());
+        session.sendDownstreamGamePacket(new ServerboundChunkBatchReceivedPacket(desiredChunksPerTick));
+    }
+
+    @Override
+    public boolean shouldWaitForChunks() {
+        // Only acknowledge a batch once all of its chunks have been translated and sent,
+        // so the server cannot send chunks faster than we are able to translate them
+        return true;
     }
 }
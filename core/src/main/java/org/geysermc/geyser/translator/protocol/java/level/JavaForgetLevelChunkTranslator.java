@@ -40,7 +40,14 @@ public class JavaForgetLevelChunkTranslator extends PacketTranslator<Clientbound
 
     @Override
     public void translate(GeyserSession session, ClientboundForgetLevelChunkPacket packet) {
+        // Chunks are cached when they are received, so they're removed right away as well. Waiting for the pending
+        // chunks would remove the chunk again if the server resends it in the meantime
         session.getChunkCache().removeChunk(packet.getX(), packet.getZ());
+        session.getChunkTranslationPipeline().runInOrder(() -> forgetOnClient(session, packet));
+    }
+
+    private static void forgetOnClient(GeyserSession session, ClientboundForgetLevelChunkPacket packet) {
+        session.getSubChunkCache().removeColumn(packet.getX(), packet.getZ());
 
         // Checks if a skull is in an unloaded chunk then removes it
         List<Vector3i> removedSkulls = new ArrayList<>();
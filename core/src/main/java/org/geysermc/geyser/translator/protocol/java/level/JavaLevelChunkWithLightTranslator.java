@@ -28,14 +28,16 @@ package org.geysermc.geyser.translator.protocol.java.level;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntImmutableList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.ints.IntLists;
-import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
-import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.math.vector.Vector3i;
 import org.cloudburstmc.nbt.NBTOutputStream;
 import org.cloudburstmc.nbt.NbtMap;
@@ -47,13 +49,17 @@ import org.geysermc.geyser.level.BedrockDimension;
 import org.geysermc.geyser.level.block.type.Block;
 import org.geysermc.geyser.level.block.type.BlockState;
 import org.geysermc.geyser.level.chunk.BlockStorage;
+import org.geysermc.geyser.level.chunk.ChunkTranslationPipeline;
+import org.geysermc.geyser.level.chunk.CompactChunkSection;
 import org.geysermc.geyser.level.chunk.GeyserChunkSection;
+import org.geysermc.geyser.level.chunk.SharedChunkCache;
+import org.geysermc.geyser.level.chunk.TranslatedChunk;
 import org.geysermc.geyser.level.chunk.bitarray.BitArray;
 import org.geysermc.geyser.level.chunk.bitarray.BitArrayVersion;
 import org.geysermc.geyser.level.chunk.bitarray.SingletonBitArray;
 import org.geysermc.geyser.registry.BlockRegistries;
+import org.geysermc.geyser.registry.type.BlockMappings;
 import org.geysermc.geyser.session.GeyserSession;
-import org.geysermc.geyser.translator.level.BiomeTranslator;
 import org.geysermc.geyser.translator.level.block.entity.BedrockChunkWantsBlockEntityTag;
 import org.geysermc.geyser.translator.level.block.entity.BlockEntityTranslator;
 import org.geysermc.geyser.translator.level.block.entity.SkullBlockEntityTranslator;
@@ -73,6 +79,7 @@ import org.geysermc.mcprotocollib.protocol.data.game.level.block.BlockEntityType
 import org.geysermc.mcprotocollib.protocol.packet.ingame.clientbound.level.ClientboundLevelChunkWithLightPacket;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
@@ -85,310 +92,112 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
 
     @Override
     public void translate(GeyserSession session, ClientboundLevelChunkWithLightPacket packet) {
-        final boolean useExtendedCollisions = !session.getBlockMappings().getExtendedCollisionBoxes().isEmpty();
-
         if (session.isSpawned()) {
             ChunkUtils.updateChunkPosition(session, session.getPlayerEntity().getPosition().toInt());
         }
 
         // Ensure that, if the player is using lower world heights, the position is not offset
-        int yOffset = session.getChunkCache().getChunkMinY();
-        int chunkSize = session.getChunkCache().getChunkHeightY();
+        final int yOffset = session.getChunkCache().getChunkMinY();
+        final int chunkSize = session.getChunkCache().getChunkHeightY();
+        final BedrockDimension bedrockDimension = session.getBedrockDimension();
+        final BlockMappings mappings = session.getBlockMappings();
+        final int protocolVersion = session.protocolVersion();
+        final boolean cacheChunk = session.getChunkCache().isCaching() && !session.getErosionHandler().isActive();
+
+        // Chunks with custom skulls are modified for this session only, so they can't be shared
+        SharedChunkCache sharedChunkCache = session.getGeyser().getSharedChunkCache();
+        final SharedChunkCache sharedCache = sharedChunkCache != null && sharedChunkCache.isEnabled()
+                && !hasCustomSkulls(session, packet.getBlockEntities()) ? sharedChunkCache : null;
+
+        ChunkSection[] javaSections = new ChunkSection[chunkSize];
+        ByteBuf in = Unpooled.wrappedBuffer(packet.getChunkData());
+        for (int sectionY = 0; sectionY < chunkSize; sectionY++) {
+            javaSections[sectionY] = MinecraftTypes.readChunkSection(in);
+        }
+
+        if (cacheChunk) {
+            // Cached right away rather than once the chunk is sent, so movement, collisions and everything else that
+            // reads the world sees this chunk as soon as a Java client would, even while the Bedrock translation is pending
+            CompactChunkSection[] cachedSections = new CompactChunkSection[chunkSize];
+            for (int sectionY = 0; sectionY < chunkSize; sectionY++) {
+                // Players close to each other receive the same sections, so only store those once
+                cachedSections[sectionY] = CompactChunkSection.from(javaSections[sectionY].getChunkData()).intern();
+            }
+            session.getChunkCache().addToCache(packet.getX(), packet.getZ(), cachedSections);
+        }
+
+        ChunkTranslationPipeline pipeline = session.getChunkTranslationPipeline();
+        if (pipeline.isEnabled()) {
+            pipeline.submit(() -> decodeChunk(packet, javaSections, mappings, protocolVersion, bedrockDimension, yOffset, chunkSize, sharedCache),
+                    decodedChunk -> sendChunk(session, packet, decodedChunk, bedrockDimension, yOffset, chunkSize));
+        } else {
+            sendChunk(session, packet, decodeChunk(packet, javaSections, mappings, protocolVersion, bedrockDimension, yOffset, chunkSize, sharedCache),
+                    bedrockDimension, yOffset, chunkSize);
+        }
+    }
 
+    /**
+     * Translates the block data of the Java chunk. This does not depend on the session and may be called from any thread.
+     *
+     * @param sharedChunkCache the cache to use, or null if the translated chunk is modified afterwards
+     */
+    private static DecodedChunk decodeChunk(ClientboundLevelChunkWithLightPacket packet, ChunkSection[] javaSections, BlockMappings mappings,
+                                            int protocolVersion, BedrockDimension bedrockDimension, int yOffset, int chunkSize,
+                                            @Nullable SharedChunkCache sharedChunkCache) {
         DataPalette[] javaChunks = new DataPalette[chunkSize];
         DataPalette[] javaBiomes = new DataPalette[chunkSize];
+        for (int sectionY = 0; sectionY < chunkSize; sectionY++) {
+            javaChunks[sectionY] = javaSections[sectionY].getChunkData();
+            javaBiomes[sectionY] = javaSections[sectionY].getBiomeData();
+        }
+
+        TranslatedChunk translatedChunk;
+        if (sharedChunkCache != null) {
+            // Nothing left in the block data depends on this session, so the translation can be shared
+            // with every other player that receives this exact chunk
+            SharedChunkCache.Key key = SharedChunkCache.key(packet.getChunkData(), protocolVersion, bedrockDimension, yOffset, chunkSize);
+            translatedChunk = sharedChunkCache.get(key);
+            if (translatedChunk == null) {
+                translatedChunk = translateSections(mappings, javaSections, yOffset, bedrockDimension).encoded();
+                sharedChunkCache.put(key, translatedChunk);
+            }
+        } else {
+            translatedChunk = translateSections(mappings, javaSections, yOffset, bedrockDimension);
+        }
+        return new DecodedChunk(javaChunks, javaBiomes, translatedChunk);
+    }
+
+    private static void sendChunk(GeyserSession session, ClientboundLevelChunkWithLightPacket packet, DecodedChunk decodedChunk,
+                                  BedrockDimension bedrockDimension, int yOffset, int chunkSize) {
+        final DataPalette[] javaChunks = decodedChunk.javaChunks();
+        final DataPalette[] javaBiomes = decodedChunk.javaBiomes();
+        final TranslatedChunk translatedChunk = decodedChunk.translatedChunk();
+        // Custom skulls may still be placed into these
+        final GeyserChunkSection[] sections = translatedChunk.isEncoded() ? null : translatedChunk.sections();
 
         final BlockEntityInfo[] blockEntities = packet.getBlockEntities();
         final List<NbtMap> bedrockBlockEntities = new ObjectArrayList<>(blockEntities.length);
 
-        BitSet waterloggedPaletteIds = new BitSet();
-        BitSet bedrockOnlyBlockEntityIds = new BitSet();
-
-        BedrockDimension bedrockDimension = session.getBedrockDimension();
         int maxBedrockSectionY = (bedrockDimension.height() >> 4) - 1;
 
         int sectionCount;
-        byte[] payload;
+        boolean useSubChunkRequests;
+        boolean useBlobCache;
+        LongList blobIds = new LongArrayList();
+        ByteBuf payload;
         ByteBuf byteBuf = null;
 
-        // calculate the difference between the java dimension minY and the bedrock dimension minY as
-        // the java chunk sections may need to be placed higher up in the bedrock chunk section array
-        int sectionCountDiff = yOffset - (bedrockDimension.minY() >> 4);
-        GeyserChunkSection[] sections = new GeyserChunkSection[chunkSize + sectionCountDiff];
-
         try {
-            ByteBuf in = Unpooled.wrappedBuffer(packet.getChunkData());
-            boolean extendedCollisionNextSection = false;
-            for (int sectionY = 0; sectionY < chunkSize; sectionY++) {
-                ChunkSection javaSection = MinecraftTypes.readChunkSection(in);
-                javaChunks[sectionY] = javaSection.getChunkData();
-                javaBiomes[sectionY] = javaSection.getBiomeData();
-                boolean extendedCollision = extendedCollisionNextSection;
-                boolean thisExtendedCollisionNextSection = false;
-
-                int bedrockSectionY = sectionY + sectionCountDiff;
-                int subChunkIndex = sectionY + yOffset;
-                if (bedrockSectionY < 0 || maxBedrockSectionY < bedrockSectionY) {
-                    // Ignore this chunk section since it goes outside the bounds accepted by the Bedrock client
-                    if (useExtendedCollisions) {
-                        EXTENDED_COLLISIONS_STORAGE.get().clear();
-                    }
-                    extendedCollisionNextSection = false;
-                    continue;
-                }
-
-                // No need to encode an empty section...
-                if (javaSection.isBlockCountEmpty()) {
-                    // Unless we need to send extended collisions
-                    if (useExtendedCollisions) {
-                        if (extendedCollision) {
-                            int blocks = EXTENDED_COLLISIONS_STORAGE.get().bottomLayerCollisions() + 1;
-                            BitArray bedrockData = BitArrayVersion.forBitsCeil(Integer.SIZE - Integer.numberOfLeadingZeros(blocks)).createArray(BlockStorage.SIZE);
-                            BlockStorage layer0 = new BlockStorage(bedrockData, new IntArrayList(blocks));
-    
-                            layer0.idFor(session.getBlockMappings().getBedrockAir().getRuntimeId());
-                            for (int yzx = 0; yzx < BlockStorage.SIZE / 16; yzx++) {
-                                if (EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY) != 0) {
-                                    bedrockData.set(indexYZXtoXZY(yzx), layer0.idFor(EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY)));
-                                    EXTENDED_COLLISIONS_STORAGE.get().set(yzx, 0, sectionY);
-                                }
-                            }
-    
-                            BlockStorage[] layers = new BlockStorage[]{ layer0 };
-                            sections[bedrockSectionY] = new GeyserChunkSection(layers, subChunkIndex);
-                        }
-                        EXTENDED_COLLISIONS_STORAGE.get().clear();
-                        extendedCollisionNextSection = false;
-                    }
-                    continue;
-                }
-
-                Palette javaPalette = javaSection.getChunkData().getPalette();
-                BitStorage javaData = javaSection.getChunkData().getStorage();
-
-                if (javaPalette instanceof GlobalPalette) {
-                    // As this is the global palette, simply iterate through the whole chunk section once
-                    GeyserChunkSection section = new GeyserChunkSection(session.getBlockMappings().getBedrockAir().getRuntimeId(), subChunkIndex);
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int javaId = javaData.get(yzx);
-                        BlockState state = BlockState.of(javaId);
-                        int bedrockId = session.getBlockMappings().getBedrockBlockId(javaId);
-                        int xzy = indexYZXtoXZY(yzx);
-                        section.getBlockStorageArray()[0].setFullBlock(xzy, bedrockId);
-
-                        if (BlockRegistries.WATERLOGGED.get().get(javaId)) {
-                            section.getBlockStorageArray()[1].setFullBlock(xzy, session.getBlockMappings().getBedrockWater().getRuntimeId());
-                        }
-
-                        // Extended collision blocks
-                        if (useExtendedCollisions) {
-                            if (EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY) != 0) {
-                                if (javaId == Block.JAVA_AIR_ID) {
-                                    section.getBlockStorageArray()[0].setFullBlock(xzy, EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY));
-                                }
-                                EXTENDED_COLLISIONS_STORAGE.get().set(yzx, 0, sectionY);
-                                continue;
-                            }
-                            BlockDefinition aboveBedrockExtendedCollisionDefinition = session.getBlockMappings().getExtendedCollisionBoxes().get(javaId);
-                            if (aboveBedrockExtendedCollisionDefinition != null) {
-                                EXTENDED_COLLISIONS_STORAGE.get().set((yzx + 0x100) & 0xFFF, aboveBedrockExtendedCollisionDefinition.getRuntimeId(), sectionY);
-                                if ((xzy & 0xF) == 15) {
-                                    thisExtendedCollisionNextSection = true;
-                                }
-                            }
-                        }
-
-                        // Check if block is piston or flower to see if we'll need to create additional block entities, as they're only block entities in Bedrock
-                        if (state.block() instanceof BedrockChunkWantsBlockEntityTag blockEntity) {
-                            bedrockBlockEntities.add(blockEntity.createTag(session,
-                                    Vector3i.from((packet.getX() << 4) + (yzx & 0xF), ((sectionY + yOffset) << 4) + ((yzx >> 8) & 0xF), (packet.getZ() << 4) + ((yzx >> 4) & 0xF)),
-                                    state
-                            ));
-                        }
-                    }
-                    sections[bedrockSectionY] = section;
-                    extendedCollisionNextSection = thisExtendedCollisionNextSection;
-                    continue;
-                }
-
-                if (javaPalette instanceof SingletonPalette) {
-                    // There's only one block here. Very easy!
-                    int javaId = javaPalette.idToState(0);
-                    int bedrockId = session.getBlockMappings().getBedrockBlockId(javaId);
-                    BlockStorage blockStorage = new BlockStorage(SingletonBitArray.INSTANCE, IntLists.singleton(bedrockId));
-
-                    if (BlockRegistries.WATERLOGGED.get().get(javaId)) {
-                        BlockStorage waterlogged = new BlockStorage(SingletonBitArray.INSTANCE, IntLists.singleton(session.getBlockMappings().getBedrockWater().getRuntimeId()));
-                        sections[bedrockSectionY] = new GeyserChunkSection(new BlockStorage[] {blockStorage, waterlogged}, subChunkIndex);
-                    } else {
-                        sections[bedrockSectionY] = new GeyserChunkSection(new BlockStorage[] {blockStorage}, subChunkIndex);
-                    }
-                    if (useExtendedCollisions) {
-                        EXTENDED_COLLISIONS_STORAGE.get().clear();
-                        extendedCollisionNextSection = false;
-                    }
-                    // If a chunk contains all of the same piston or flower pot then god help us
-                    continue;
-                }
-
-                IntList bedrockPalette = new IntArrayList(javaPalette.size());
-                int airPaletteId = -1;
-                waterloggedPaletteIds.clear();
-                bedrockOnlyBlockEntityIds.clear();
-
-                // Iterate through palette and convert state IDs to Bedrock, doing some additional checks as we go
-                int extendedCollisionsInPalette = 0;
-                for (int i = 0; i < javaPalette.size(); i++) {
-                    int javaId = javaPalette.idToState(i);
-                    bedrockPalette.add(session.getBlockMappings().getBedrockBlockId(javaId));
-
-                    if (BlockRegistries.WATERLOGGED.get().get(javaId)) {
-                        waterloggedPaletteIds.set(i);
-                    }
-
-                    if (javaId == Block.JAVA_AIR_ID) {
-                        airPaletteId = i;
-                    }
-
-                    if (useExtendedCollisions) {
-                        if (session.getBlockMappings().getExtendedCollisionBoxes().get(javaId) != null) {
-                            extendedCollision = true;
-                            extendedCollisionsInPalette++;
-                        }
-                    }
-
-                    // Check if block is piston, flower or cauldron to see if we'll need to create additional block entities, as they're only block entities in Bedrock
-                    // TODO this needs a performance check when my head is clearer
-                    BlockState state = BlockState.of(javaId);
-                    if (state.block() instanceof BedrockChunkWantsBlockEntityTag) {
-                        bedrockOnlyBlockEntityIds.set(i);
-                    }
-                }
-
-                // Add Bedrock-exclusive block entities
-                // We only if the palette contained any blocks that are Bedrock-exclusive block entities to avoid iterating through the whole block data
-                // for no reason, as most sections will not contain any pistons or flower pots
-                if (!bedrockOnlyBlockEntityIds.isEmpty()) {
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        if (bedrockOnlyBlockEntityIds.get(paletteId)) {
-                            BlockState state = BlockState.of(javaPalette.idToState(paletteId));
-                            bedrockBlockEntities.add(((BedrockChunkWantsBlockEntityTag) state.block()).createTag(session,
-                                    Vector3i.from((packet.getX() << 4) + (yzx & 0xF), ((sectionY + yOffset) << 4) + ((yzx >> 8) & 0xF), (packet.getZ() << 4) + ((yzx >> 4) & 0xF)),
-                                    state
-                            ));
-                        }
-                    }
-                }
-
-                // We need to ensure we use enough bits to represent extended collision blocks in the chunk section
-                int sectionCollisionBlocks = 0;
-                if (useExtendedCollisions) {
-                    int bottomLayerCollisions = extendedCollision ? EXTENDED_COLLISIONS_STORAGE.get().bottomLayerCollisions() : 0;
-                    sectionCollisionBlocks = bottomLayerCollisions + extendedCollisionsInPalette;
-                }
-                int bedrockDataBits = Integer.SIZE - Integer.numberOfLeadingZeros(javaPalette.size() + sectionCollisionBlocks);
-                BitArray bedrockData = BitArrayVersion.forBitsCeil(bedrockDataBits).createArray(BlockStorage.SIZE);
-                BlockStorage layer0 = new BlockStorage(bedrockData, bedrockPalette);
-                BlockStorage[] layers;
-
-                // Convert data array from YZX to XZY coordinate order
-                if (waterloggedPaletteIds.isEmpty() && !extendedCollision) {
-                    // No blocks are waterlogged, simply convert coordinate order
-                    // This could probably be optimized further...
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        int xzy = indexYZXtoXZY(yzx);
-                        bedrockData.set(xzy, paletteId);
-                    }
-
-                    layers = new BlockStorage[]{ layer0 };
-                } else if (!waterloggedPaletteIds.isEmpty() && !extendedCollision) {
-                    // The section contains waterlogged blocks, we need to convert coordinate order AND generate a V1 block storage for
-                    // layer 1 with palette ID 1 indicating water
-                    int[] layer1Data = new int[BlockStorage.SIZE >> 5];
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        int xzy = indexYZXtoXZY(yzx);
-                        bedrockData.set(xzy, paletteId);
-
-                        if (waterloggedPaletteIds.get(paletteId)) {
-                            layer1Data[xzy >> 5] |= 1 << (xzy & 0x1F);
-                        }
-                    }
-                    
-                    // V1 palette
-                    IntList layer1Palette = IntList.of(
-                            session.getBlockMappings().getBedrockAir().getRuntimeId(), // Air - see BlockStorage's constructor for more information
-                            session.getBlockMappings().getBedrockWater().getRuntimeId());
-
-                    layers = new BlockStorage[]{ layer0, new BlockStorage(BitArrayVersion.V1.createArray(BlockStorage.SIZE, layer1Data), layer1Palette) };
-                } else if (waterloggedPaletteIds.isEmpty()) {
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        int xzy = indexYZXtoXZY(yzx);
-                        bedrockData.set(xzy, paletteId);
-
-                        if (EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY) != 0) {
-                            if (paletteId == airPaletteId) {
-                                bedrockData.set(xzy, layer0.idFor(EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY)));
-                            }
-                            EXTENDED_COLLISIONS_STORAGE.get().set(yzx, 0, sectionY);
-                            continue;
-                        }
-                        BlockDefinition aboveBedrockExtendedCollisionDefinition = session.getBlockMappings()
-                                .getExtendedCollisionBoxes().get(javaPalette.idToState(paletteId));
-                        if (aboveBedrockExtendedCollisionDefinition != null) {
-                            EXTENDED_COLLISIONS_STORAGE.get().set((yzx + 0x100) & 0xFFF, aboveBedrockExtendedCollisionDefinition.getRuntimeId(), sectionY);
-                            if ((xzy & 0xF) == 15) {
-                                thisExtendedCollisionNextSection = true;
-                            }
-                        }
-                    }
-
-                    layers = new BlockStorage[]{ layer0 };
-                } else {
-                    int[] layer1Data = new int[BlockStorage.SIZE >> 5];
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        int xzy = indexYZXtoXZY(yzx);
-                        bedrockData.set(xzy, paletteId);
-
-                        if (waterloggedPaletteIds.get(paletteId)) {
-                            layer1Data[xzy >> 5] |= 1 << (xzy & 0x1F);
-                        }
-
-                        if (EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY) != 0) {
-                            if (paletteId == airPaletteId) {
-                                bedrockData.set(xzy, layer0.idFor(EXTENDED_COLLISIONS_STORAGE.get().get(yzx, sectionY)));
-                            }
-                            EXTENDED_COLLISIONS_STORAGE.get().set(yzx, 0, sectionY);
-                            continue;
-                        }
-                        BlockDefinition aboveBedrockExtendedCollisionDefinition = session.getBlockMappings().getExtendedCollisionBoxes()
-                                .get(javaPalette.idToState(paletteId));
-                        if (aboveBedrockExtendedCollisionDefinition != null) {
-                            EXTENDED_COLLISIONS_STORAGE.get().set((yzx + 0x100) & 0xFFF, aboveBedrockExtendedCollisionDefinition.getRuntimeId(), sectionY);
-                            if ((xzy & 0xF) == 15) {
-                                thisExtendedCollisionNextSection = true;
-                            }
-                        }
-                    }
-
-                    // V1 palette
-                    IntList layer1Palette = IntList.of(
-                            session.getBlockMappings().getBedrockAir().getRuntimeId(), // Air - see BlockStorage's constructor for more information
-                            session.getBlockMappings().getBedrockWater().getRuntimeId());
-
-                    layers = new BlockStorage[]{ layer0, new BlockStorage(BitArrayVersion.V1.createArray(BlockStorage.SIZE, layer1Data), layer1Palette) };
-                }
-
-                sections[bedrockSectionY] = new GeyserChunkSection(layers, subChunkIndex);
-                extendedCollisionNextSection = thisExtendedCollisionNextSection;
-            }
-
-            if (!session.getErosionHandler().isActive()) {
-                session.getChunkCache().addToCache(packet.getX(), packet.getZ(), javaChunks);
+            // Add Bedrock-exclusive block entities
+            int[] bedrockOnlyBlockEntities = translatedChunk.bedrockOnlyBlockEntities();
+            for (int i = 0; i < bedrockOnlyBlockEntities.length; i += 2) {
+                int sectionY = bedrockOnlyBlockEntities[i] >> 12;
+                int yzx = bedrockOnlyBlockEntities[i] & 0xFFF;
+                BlockState state = BlockState.of(bedrockOnlyBlockEntities[i + 1]);
+                bedrockBlockEntities.add(((BedrockChunkWantsBlockEntityTag) state.block()).createTag(session,
+                        Vector3i.from((packet.getX() << 4) + (yzx & 0xF), ((sectionY + yOffset) << 4) + ((yzx >> 8) & 0xF), (packet.getZ() << 4) + ((yzx >> 4) & 0xF)),
+                        state
+                ));
             }
 
             final int chunkBlockX = packet.getX() << 4;
@@ -421,7 +230,7 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
                     // Check for custom skulls
                     if (session.getPreferencesCache().showCustomSkulls() && type == BlockEntityType.SKULL && tag != null && tag.containsKey("profile")) {
                         BlockDefinition blockDefinition = SkullBlockEntityTranslator.translateSkull(session, tag, Vector3i.from(x + chunkBlockX, y, z + chunkBlockZ), blockState);
-                        if (blockDefinition != null) {
+                        if (blockDefinition != null && sections != null) {
                             int bedrockSectionY = (y >> 4) - (bedrockDimension.minY() >> 4);
                             int subChunkIndex = (y >> 4) + (bedrockDimension.minY() >> 4);
                             if (0 <= bedrockSectionY && bedrockSectionY < maxBedrockSectionY) {
@@ -440,69 +249,65 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
                 }
             }
 
-            // Find highest section
-            sectionCount = sections.length - 1;
-            while (sectionCount >= 0 && sections[sectionCount] == null) {
-                sectionCount--;
-            }
-            sectionCount++;
+            sectionCount = translatedChunk.sectionCount();
 
             // As of 1.18.30, the amount of biomes read is dependent on how high Bedrock thinks the dimension is
             int biomeCount = bedrockDimension.height() >> 4;
 
+            useSubChunkRequests = session.getSubChunkCache().isEnabled();
+            // Sub-chunks are requested and sent separately, so the blob cache only applies to full chunks
+            useBlobCache = !useSubChunkRequests && session.getChunkBlobCache().isActive();
+
             // Estimate chunk size
-            int size = 0;
-            for (int i = 0; i < sectionCount; i++) {
-                GeyserChunkSection section = sections[i];
-                if (section != null) {
-                    size += section.estimateNetworkSize();
-                } else {
-                    size += EMPTY_CHUNK_SECTION_SIZE;
-                }
-            }
+            int size = translatedChunk.estimateNetworkSize();
             size += ChunkUtils.EMPTY_BIOME_DATA.length * biomeCount;
             size += 1; // Border blocks
             size += bedrockBlockEntities.size() * 64; // Conservative estimate of 64 bytes per tile entity
 
-            // Allocate output buffer
-            byteBuf = ByteBufAllocator.DEFAULT.ioBuffer(size);
-            for (int i = 0; i < sectionCount; i++) {
-                GeyserChunkSection section = sections[i];
-                if (section != null) {
-                    section.writeToNetwork(byteBuf);
-                } else {
-                    int subChunkIndex = (i + (bedrockDimension.minY() >> 4));
-                    new GeyserChunkSection(EMPTY_BLOCK_STORAGE, subChunkIndex).writeToNetwork(byteBuf);
-                }
-            }
+            if (useSubChunkRequests) {
+                // The client will request the sections it needs; only biomes and border blocks are part of this payload
+                session.getSubChunkCache().addColumn(packet.getX(), packet.getZ(), bedrockDimension, translatedChunk, bedrockBlockEntities);
+                byteBuf = ByteBufAllocator.DEFAULT.ioBuffer(ChunkUtils.EMPTY_BIOME_DATA.length * biomeCount + 1);
+                writeBiomes(session, byteBuf, javaBiomes, bedrockDimension, yOffset, chunkSize);
+            } else if (useBlobCache) {
+                // Each section and the biome data are sent as blobs that the client may already have cached.
+                // The payload itself then only consists of the border blocks and block entities.
+                byteBuf = ByteBufAllocator.DEFAULT.ioBuffer(1 + bedrockBlockEntities.size() * 64);
+                ByteBuf blobBuf = ByteBufAllocator.DEFAULT.heapBuffer(size);
+                try {
+                    for (int i = 0; i < sectionCount; i++) {
+                        translatedChunk.writeSection(blobBuf, i, bedrockDimension);
+                        blobIds.add(session.getChunkBlobCache().addBlob(ByteBufUtil.getBytes(blobBuf)));
+                        blobBuf.clear();
+                    }
 
-            int dimensionOffset = bedrockDimension.minY() >> 4;
-            for (int i = 0; i < biomeCount; i++) {
-                int biomeYOffset = dimensionOffset + i;
-                if (biomeYOffset < yOffset) {
-                    // Ignore this biome section since it goes below the height of the Java world
-                    byteBuf.writeBytes(ChunkUtils.EMPTY_BIOME_DATA);
-                    continue;
+                    writeBiomes(session, blobBuf, javaBiomes, bedrockDimension, yOffset, chunkSize);
+                    blobIds.add(session.getChunkBlobCache().addBlob(ByteBufUtil.getBytes(blobBuf)));
+                } finally {
+                    blobBuf.release();
                 }
-                if (biomeYOffset >= (chunkSize + yOffset)) {
-                    // This biome section goes above the height of the Java world
-                    // The byte written here is a header that says to carry on the biome data from the previous chunk
-                    byteBuf.writeByte((127 << 1) | 1);
-                    continue;
+            } else {
+                // Allocate output buffer
+                byteBuf = ByteBufAllocator.DEFAULT.ioBuffer(size);
+                for (int i = 0; i < sectionCount; i++) {
+                    translatedChunk.writeSection(byteBuf, i, bedrockDimension);
                 }
 
-                BiomeTranslator.toNewBedrockBiome(session, javaBiomes[i + (dimensionOffset - yOffset)]).writeToNetwork(byteBuf);
+                writeBiomes(session, byteBuf, javaBiomes, bedrockDimension, yOffset, chunkSize);
             }
 
             byteBuf.writeByte(0); // Border blocks - Edu edition only
 
-            // Encode tile entities into buffer
-            NBTOutputStream nbtStream = NbtUtils.createNetworkWriter(new ByteBufOutputStream(byteBuf));
-            for (NbtMap blockEntity : bedrockBlockEntities) {
-                nbtStream.writeTag(blockEntity);
+            if (!useSubChunkRequests) {
+                // Encode tile entities into buffer
+                NBTOutputStream nbtStream = NbtUtils.createNetworkWriter(new ByteBufOutputStream(byteBuf));
+                for (NbtMap blockEntity : bedrockBlockEntities) {
+                    nbtStream.writeTag(blockEntity);
+                }
             }
-            payload = new byte[byteBuf.readableBytes()];
-            byteBuf.readBytes(payload);
+            // The buffer is sent as-is; the packet now owns it and releases it once encoded
+            payload = byteBuf;
+            byteBuf = null;
         } catch (IOException e) {
             session.getGeyser().getLogger().error("IO error while encoding chunk", e);
             return;
@@ -513,12 +318,18 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
         }
 
         LevelChunkPacket levelChunkPacket = new LevelChunkPacket();
-        levelChunkPacket.setSubChunksLength(sectionCount);
-        levelChunkPacket.setCachingEnabled(false);
+        if (useSubChunkRequests) {
+            levelChunkPacket.setRequestSubChunks(true);
+            levelChunkPacket.setSubChunkLimit(sectionCount);
+        } else {
+            levelChunkPacket.setSubChunksLength(sectionCount);
+        }
+        levelChunkPacket.setCachingEnabled(useBlobCache);
+        levelChunkPacket.getBlobIds().addAll(blobIds);
         levelChunkPacket.setChunkX(packet.getX());
         levelChunkPacket.setChunkZ(packet.getZ());
-        levelChunkPacket.setData(Unpooled.wrappedBuffer(payload));
-        levelChunkPacket.setDimension(session.getBedrockDimension().bedrockId());
+        levelChunkPacket.setData(payload);
+        levelChunkPacket.setDimension(bedrockDimension.bedrockId());
         session.sendUpstreamPacket(levelChunkPacket);
 
         for (Map.Entry<Vector3i, ItemFrameEntity> entry : session.getItemFrameCache().entrySet()) {
@@ -531,49 +342,376 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
         }
     }
 
+    private record DecodedChunk(DataPalette[] javaChunks, DataPalette[] javaBiomes, TranslatedChunk translatedChunk) {
+    }
+
+    /**
+     * Translates the block data of a Java chunk column. Everything done here only depends on the block mappings and
+     * dimension, so the result can be shared between sessions.
+     */
+    private static TranslatedChunk translateSections(BlockMappings mappings, ChunkSection[] javaSections, int yOffset, BedrockDimension bedrockDimension) {
+        final boolean useExtendedCollisions = mappings.hasExtendedCollisionBoxes();
+        final ExtendedCollisionsStorage extendedCollisions = useExtendedCollisions ? EXTENDED_COLLISIONS_STORAGE.get() : null;
+        if (useExtendedCollisions) {
+            // Don't carry over collisions from the previous chunk translated on this thread
+            extendedCollisions.clear();
+        }
+        int chunkSize = javaSections.length;
+        int maxBedrockSectionY = (bedrockDimension.height() >> 4) - 1;
+
+        BitSet waterloggedPaletteIds = new BitSet();
+        BitSet bedrockOnlyBlockEntityIds = new BitSet();
+        // Pairs of (Java section Y << 12 | YZX index) and Java block state
+        IntList bedrockOnlyBlockEntities = new IntArrayList();
+
+        // calculate the difference between the java dimension minY and the bedrock dimension minY as
+        // the java chunk sections may need to be placed higher up in the bedrock chunk section array
+        int sectionCountDiff = yOffset - (bedrockDimension.minY() >> 4);
+        GeyserChunkSection[] sections = new GeyserChunkSection[chunkSize + sectionCountDiff];
+
+        boolean extendedCollisionNextSection = false;
+        for (int sectionY = 0; sectionY < chunkSize; sectionY++) {
+            ChunkSection javaSection = javaSections[sectionY];
+            boolean extendedCollision = extendedCollisionNextSection;
+            boolean thisExtendedCollisionNextSection = false;
+
+            int bedrockSectionY = sectionY + sectionCountDiff;
+            int subChunkIndex = sectionY + yOffset;
+            if (bedrockSectionY < 0 || maxBedrockSectionY < bedrockSectionY) {
+                // Ignore this chunk section since it goes outside the bounds accepted by the Bedrock client
+                if (useExtendedCollisions) {
+                    extendedCollisions.clear();
+                }
+                extendedCollisionNextSection = false;
+                continue;
+            }
+
+            // No need to encode an empty section...
+            if (javaSection.isBlockCountEmpty()) {
+                // Unless we need to send extended collisions
+                if (useExtendedCollisions) {
+                    if (extendedCollision) {
+                        int blocks = extendedCollisions.bottomLayerCollisions() + 1;
+                        BitArray bedrockData = BitArrayVersion.forBitsCeil(Integer.SIZE - Integer.numberOfLeadingZeros(blocks)).createArray(BlockStorage.SIZE);
+                        BlockStorage layer0 = new BlockStorage(bedrockData, new IntArrayList(blocks));
+
+                        layer0.idFor(mappings.getBedrockAir().getRuntimeId());
+                        for (int yzx = 0; yzx < BlockStorage.SIZE / 16; yzx++) {
+                            if (extendedCollisions.get(yzx, sectionY) != 0) {
+                                bedrockData.set(indexYZXtoXZY(yzx), layer0.idFor(extendedCollisions.get(yzx, sectionY)));
+                                extendedCollisions.set(yzx, 0, sectionY);
+                            }
+                        }
+
+                        BlockStorage[] layers = new BlockStorage[]{ layer0 };
+                        sections[bedrockSectionY] = new GeyserChunkSection(layers, subChunkIndex);
+                    }
+                    extendedCollisions.clear();
+                    extendedCollisionNextSection = false;
+                }
+                continue;
+            }
+
+            Palette javaPalette = javaSection.getChunkData().getPalette();
+            BitStorage javaData = javaSection.getChunkData().getStorage();
+
+            if (javaPalette instanceof GlobalPalette) {
+                // As this is the global palette, simply iterate through the whole chunk section once
+                GeyserChunkSection section = new GeyserChunkSection(mappings.getBedrockAir().getRuntimeId(), subChunkIndex);
+                for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
+                    int javaId = javaData.get(yzx);
+                    int bedrockId = mappings.getBedrockBlockId(javaId);
+                    int xzy = indexYZXtoXZY(yzx);
+                    section.getBlockStorageArray()[0].setFullBlock(xzy, bedrockId);
+
+                    if (BlockRegistries.WATERLOGGED.get().get(javaId)) {
+                        section.getBlockStorageArray()[1].setFullBlock(xzy, mappings.getBedrockWater().getRuntimeId());
+                    }
+
+                    // Extended collision blocks
+                    if (useExtendedCollisions) {
+                        if (extendedCollisions.get(yzx, sectionY) != 0) {
+                            if (javaId == Block.JAVA_AIR_ID) {
+                                section.getBlockStorageArray()[0].setFullBlock(xzy, extendedCollisions.get(yzx, sectionY));
+                            }
+                            extendedCollisions.set(yzx, 0, sectionY);
+                            continue;
+                        }
+                        int aboveBedrockExtendedCollisionId = mappings.getExtendedCollisionRuntimeId(javaId);
+                        if (aboveBedrockExtendedCollisionId != -1) {
+                            extendedCollisions.set((yzx + 0x100) & 0xFFF, aboveBedrockExtendedCollisionId, sectionY);
+                            if ((xzy & 0xF) == 15) {
+                                thisExtendedCollisionNextSection = true;
+                            }
+                        }
+                    }
+
+                    // Check if block is piston or flower to see if we'll need to create additional block entities, as they're only block entities in Bedrock
+                    if (mappings.wantsBedrockBlockEntity(javaId)) {
+                        bedrockOnlyBlockEntities.add((sectionY << 12) | yzx);
+                        bedrockOnlyBlockEntities.add(javaId);
+                    }
+                }
+                sections[bedrockSectionY] = section;
+                extendedCollisionNextSection = thisExtendedCollisionNextSection;
+                continue;
+            }
+
+            if (javaPalette instanceof SingletonPalette) {
+                // There's only one block here. Very easy!
+                int javaId = javaPalette.idToState(0);
+                int bedrockId = mappings.getBedrockBlockId(javaId);
+                BlockStorage blockStorage = new BlockStorage(SingletonBitArray.INSTANCE, IntLists.singleton(bedrockId));
+
+                if (BlockRegistries.WATERLOGGED.get().get(javaId)) {
+                    BlockStorage waterlogged = new BlockStorage(SingletonBitArray.INSTANCE, IntLists.singleton(mappings.getBedrockWater().getRuntimeId()));
+                    sections[bedrockSectionY] = new GeyserChunkSection(new BlockStorage[] {blockStorage, waterlogged}, subChunkIndex);
+                } else {
+                    sections[bedrockSectionY] = new GeyserChunkSection(new BlockStorage[] {blockStorage}, subChunkIndex);
+                }
+                if (useExtendedCollisions) {
+                    extendedCollisions.clear();
+                    extendedCollisionNextSection = false;
+                }
+                // If a chunk contains all of the same piston or flower pot then god help us
+                continue;
+            }
+
+            IntList bedrockPalette = new IntArrayList(javaPalette.size());
+            int airPaletteId = -1;
+            waterloggedPaletteIds.clear();
+            bedrockOnlyBlockEntityIds.clear();
+
+            // Iterate through palette and convert state IDs to Bedrock, doing some additional checks as we go
+            int extendedCollisionsInPalette = 0;
+            for (int i = 0; i < javaPalette.size(); i++) {
+                int javaId = javaPalette.idToState(i);
+                bedrockPalette.add(mappings.getBedrockBlockId(javaId));
+
+                if (BlockRegistries.WATERLOGGED.get().get(javaId)) {
+                    waterloggedPaletteIds.set(i);
+                }
+
+                if (javaId == Block.JAVA_AIR_ID) {
+                    airPaletteId = i;
+                }
+
+                if (useExtendedCollisions) {
+                    if (mappings.getExtendedCollisionRuntimeId(javaId) != -1) {
+                        extendedCollision = true;
+                        extendedCollisionsInPalette++;
+                    }
+                }
+
+                // Check if block is piston, flower or cauldron to see if we'll need to create additional block entities, as they're only block entities in Bedrock
+                if (mappings.wantsBedrockBlockEntity(javaId)) {
+                    bedrockOnlyBlockEntityIds.set(i);
+                }
+            }
+
+            // Add Bedrock-exclusive block entities
+            // We only if the palette contained any blocks that are Bedrock-exclusive block entities to avoid iterating through the whole block data
+            // for no reason, as most sections will not contain any pistons or flower pots
+            if (!bedrockOnlyBlockEntityIds.isEmpty()) {
+                for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
+                    int paletteId = javaData.get(yzx);
+                    if (bedrockOnlyBlockEntityIds.get(paletteId)) {
+                        bedrockOnlyBlockEntities.add((sectionY << 12) | yzx);
+                        bedrockOnlyBlockEntities.add(javaPalette.idToState(paletteId));
+                    }
+                }
+            }
+
+            // We need to ensure we use enough bits to represent extended collision blocks in the chunk section
+            int sectionCollisionBlocks = 0;
+            if (useExtendedCollisions) {
+                int bottomLayerCollisions = extendedCollision ? extendedCollisions.bottomLayerCollisions() : 0;
+                sectionCollisionBlocks = bottomLayerCollisions + extendedCollisionsInPalette;
+            }
+            int bedrockDataBits = Integer.SIZE - Integer.numberOfLeadingZeros(javaPalette.size() + sectionCollisionBlocks);
+            BitArray bedrockData = BitArrayVersion.forBitsCeil(bedrockDataBits).createArray(BlockStorage.SIZE);
+            BlockStorage layer0 = new BlockStorage(bedrockData, bedrockPalette);
+            BlockStorage[] layers;
+
+            // Convert data array from YZX to XZY coordinate order
+            if (waterloggedPaletteIds.isEmpty() && !extendedCollision) {
+                // No blocks are waterlogged, simply convert coordinate order
+                bedrockData.setAllFromYZX(javaData);
+
+                layers = new BlockStorage[]{ layer0 };
+            } else if (!waterloggedPaletteIds.isEmpty() && !extendedCollision) {
+                // The section contains waterlogged blocks, we need to convert coordinate order AND generate a V1 block storage for
+                // layer 1 with palette ID 1 indicating water
+                bedrockData.setAllFromYZX(javaData);
+                int[] layer1Data = new int[BlockStorage.SIZE >> 5];
+                for (int xzy = 0; xzy < BlockStorage.SIZE; xzy++) {
+                    if (waterloggedPaletteIds.get(bedrockData.get(xzy))) {
+                        layer1Data[xzy >> 5] |= 1 << (xzy & 0x1F);
+                    }
+                }
+                
+                // V1 palette
+                IntList layer1Palette = IntList.of(
+                        mappings.getBedrockAir().getRuntimeId(), // Air - see BlockStorage's constructor for more information
+                        mappings.getBedrockWater().getRuntimeId());
+
+                layers = new BlockStorage[]{ layer0, new BlockStorage(BitArrayVersion.V1.createArray(BlockStorage.SIZE, layer1Data), layer1Palette) };
+            } else if (waterloggedPaletteIds.isEmpty()) {
+                bedrockData.setAllFromYZX(javaData);
+                for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
+                    int paletteId = javaData.get(yzx);
+                    int xzy = indexYZXtoXZY(yzx);
+
+                    if (extendedCollisions.get(yzx, sectionY) != 0) {
+                        if (paletteId == airPaletteId) {
+                            bedrockData.set(xzy, layer0.idFor(extendedCollisions.get(yzx, sectionY)));
+                        }
+                        extendedCollisions.set(yzx, 0, sectionY);
+                        continue;
+                    }
+                    int aboveBedrockExtendedCollisionId = mappings.getExtendedCollisionRuntimeId(javaPalette.idToState(paletteId));
+                    if (aboveBedrockExtendedCollisionId != -1) {
+                        extendedCollisions.set((yzx + 0x100) & 0xFFF, aboveBedrockExtendedCollisionId, sectionY);
+                        if ((xzy & 0xF) == 15) {
+                            thisExtendedCollisionNextSection = true;
+                        }
+                    }
+                }
+
+                layers = new BlockStorage[]{ layer0 };
+            } else {
+                bedrockData.setAllFromYZX(javaData);
+                int[] layer1Data = new int[BlockStorage.SIZE >> 5];
+                for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
+                    int paletteId = javaData.get(yzx);
+                    int xzy = indexYZXtoXZY(yzx);
+
+                    if (waterloggedPaletteIds.get(paletteId)) {
+                        layer1Data[xzy >> 5] |= 1 << (xzy & 0x1F);
+                    }
+
+                    if (extendedCollisions.get(yzx, sectionY) != 0) {
+                        if (paletteId == airPaletteId) {
+                            bedrockData.set(xzy, layer0.idFor(extendedCollisions.get(yzx, sectionY)));
+                        }
+                        extendedCollisions.set(yzx, 0, sectionY);
+                        continue;
+                    }
+                    int aboveBedrockExtendedCollisionId = mappings.getExtendedCollisionRuntimeId(javaPalette.idToState(paletteId));
+                    if (aboveBedrockExtendedCollisionId != -1) {
+                        extendedCollisions.set((yzx + 0x100) & 0xFFF, aboveBedrockExtendedCollisionId, sectionY);
+                        if ((xzy & 0xF) == 15) {
+                            thisExtendedCollisionNextSection = true;
+                        }
+                    }
+                }
+
+                // V1 palette
+                IntList layer1Palette = IntList.of(
+                        mappings.getBedrockAir().getRuntimeId(), // Air - see BlockStorage's constructor for more information
+                        mappings.getBedrockWater().getRuntimeId());
+
+                layers = new BlockStorage[]{ layer0, new BlockStorage(BitArrayVersion.V1.createArray(BlockStorage.SIZE, layer1Data), layer1Palette) };
+            }
+
+            sections[bedrockSectionY] = new GeyserChunkSection(layers, subChunkIndex);
+            extendedCollisionNextSection = thisExtendedCollisionNextSection;
+        }
+
+        return new TranslatedChunk(sections, bedrockOnlyBlockEntities.toIntArray());
+    }
+
+    /**
+     * Custom skulls are placed into the chunk's block data, so chunks containing them cannot be shared.
+     */
+    private static boolean hasCustomSkulls(GeyserSession session, BlockEntityInfo[] blockEntities) {
+        if (!session.getPreferencesCache().showCustomSkulls()) {
+            return false;
+        }
+        for (BlockEntityInfo blockEntity : blockEntities) {
+            NbtMap tag = blockEntity.getNbt();
+            if (blockEntity.getType() == BlockEntityType.SKULL && tag != null && tag.containsKey("profile")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeBiomes(GeyserSession session, ByteBuf byteBuf, DataPalette[] javaBiomes, BedrockDimension bedrockDimension, int yOffset, int chunkSize) {
+        // As of 1.18.30, the amount of biomes read is dependent on how high Bedrock thinks the dimension is
+        int biomeCount = bedrockDimension.height() >> 4;
+        int dimensionOffset = bedrockDimension.minY() >> 4;
+        for (int i = 0; i < biomeCount; i++) {
+            int biomeYOffset = dimensionOffset + i;
+            if (biomeYOffset < yOffset) {
+                // Ignore this biome section since it goes below the height of the Java world
+                byteBuf.writeBytes(ChunkUtils.EMPTY_BIOME_DATA);
+                continue;
+            }
+            if (biomeYOffset >= (chunkSize + yOffset)) {
+                // This biome section goes above the height of the Java world
+                // The byte written here is a header that says to carry on the biome data from the previous chunk
+                byteBuf.writeByte((127 << 1) | 1);
+                continue;
+            }
+
+            session.getBiomeCache().writeBiomes(byteBuf, javaBiomes[i + (dimensionOffset - yOffset)]);
+        }
+    }
+
     static final class ExtendedCollisionsStorage {
-        private int[] data;
+        private final int[] data = new int[BlockStorage.SIZE];
+        /**
+         * Scratch space for counting the unique collisions of the bottom layer
+         */
+        private final int[] uniqueCollisions = new int[BlockStorage.SIZE / 16];
         private int sectionY;
-    
+        private boolean empty = true;
+
         int get(int index, int sY) {
-            if (data == null) {
+            if (empty) {
                 return 0;
             }
             if (!(sY ==  sectionY || sY == sectionY + 1)) {
-                data = null;
+                clear();
                 return 0;
             }
             return data[index];
         }
-    
+
         void set(int index, int value, int sY) {
-            ensureDataExists();
             data[index] = value;
             sectionY = sY;
+            empty = false;
         }
 
         void clear() {
-            data = null;
+            if (!empty) {
+                Arrays.fill(data, 0);
+                empty = true;
+            }
         }
-    
+
         int bottomLayerCollisions() {
-            if (data == null) {
+            if (empty) {
                 return 0;
             }
-    
-            IntSet uniqueNonZeroSet = new IntOpenHashSet();
+
+            int uniqueCount = 0;
+            outer:
             for (int i = 0; i < BlockStorage.SIZE / 16; i++) {
-                if (data[i] != 0) {
-                    uniqueNonZeroSet.add(data[i]);
+                int collision = data[i];
+                if (collision == 0) {
+                    continue;
                 }
+                for (int j = 0; j < uniqueCount; j++) {
+                    if (uniqueCollisions[j] == collision) {
+                        continue outer;
+                    }
+                }
+                uniqueCollisions[uniqueCount++] = collision;
             }
-            return uniqueNonZeroSet.size();
-        }
-    
-        private void ensureDataExists() {
-            if (data == null) {
-                data = new int[BlockStorage.SIZE];
-            }
+            return uniqueCount;
         }
     }
 }
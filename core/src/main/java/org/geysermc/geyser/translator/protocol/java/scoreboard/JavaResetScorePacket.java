@@ -29,7 +29,6 @@ import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.GeyserLogger;
 import org.geysermc.geyser.scoreboard.Objective;
 import org.geysermc.geyser.scoreboard.Scoreboard;
-import org.geysermc.geyser.scoreboard.ScoreboardUpdater;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.session.cache.WorldCache;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
@@ -64,10 +63,8 @@ public class JavaResetScorePacket extends PacketTranslator<ClientboundResetScore
             objective.removeScore(packet.getOwner());
         }
 
-        // ScoreboardUpdater will handle it for us if the packets per second
+        // ScoreboardUpdater will throttle the update if the packets per second
         // (for score and team packets) is higher than the first threshold
-        if (pps < ScoreboardUpdater.FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD) {
-            scoreboard.onUpdate();
-        }
+        worldCache.getScoreboardSession().onUpdate(pps);
     }
 }
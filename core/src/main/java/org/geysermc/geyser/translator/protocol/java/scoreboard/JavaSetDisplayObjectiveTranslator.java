@@ -26,7 +26,6 @@
 package org.geysermc.geyser.translator.protocol.java.scoreboard;
 
 import org.geysermc.geyser.scoreboard.Scoreboard;
-import org.geysermc.geyser.scoreboard.ScoreboardUpdater;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.session.cache.WorldCache;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
@@ -44,10 +43,8 @@ public class JavaSetDisplayObjectiveTranslator extends PacketTranslator<Clientbo
 
         scoreboard.displayObjective(packet.getName(), packet.getPosition());
 
-        // ScoreboardUpdater will handle it for us if the packets per second
+        // ScoreboardUpdater will throttle the update if the packets per second
         // (for score and team packets) is higher than the first threshold
-        if (pps < ScoreboardUpdater.FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD) {
-            scoreboard.onUpdate();
-        }
+        worldCache.getScoreboardSession().onUpdate(pps);
     }
 }
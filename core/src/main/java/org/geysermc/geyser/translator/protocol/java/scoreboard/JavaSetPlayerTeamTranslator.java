@@ -29,7 +29,6 @@ import java.util.Arrays;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.GeyserLogger;
 import org.geysermc.geyser.scoreboard.Scoreboard;
-import org.geysermc.geyser.scoreboard.ScoreboardUpdater;
 import org.geysermc.geyser.scoreboard.Team;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
@@ -93,10 +92,8 @@ public class JavaSetPlayerTeamTranslator extends PacketTranslator<ClientboundSet
         }
 
 
-        // ScoreboardUpdater will handle it for us if the packets per second
+        // ScoreboardUpdater will throttle the update if the packets per second
         // (for score and team packets) is higher than the first threshold
-        if (pps < ScoreboardUpdater.FIRST_SCORE_PACKETS_PER_SECOND_THRESHOLD) {
-            scoreboard.onUpdate();
-        }
+        session.getWorldCache().getScoreboardSession().onUpdate(pps);
     }
 }
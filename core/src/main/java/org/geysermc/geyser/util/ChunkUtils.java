@@ -154,38 +154,32 @@ public class ChunkUtils {
         }
 
         blockState.block().updateBlock(session, blockState, position);
+        session.getSubChunkCache().onBlockUpdate(position, blockState);
     }
 
     public static void sendEmptyChunk(GeyserSession session, int chunkX, int chunkZ, boolean forceUpdate) {
         BedrockDimension bedrockDimension = session.getBedrockDimension();
         int bedrockSubChunkCount = bedrockDimension.height() >> 4;
 
-        byte[] payload;
         // Allocate output buffer
-        ByteBuf byteBuf = ByteBufAllocator.DEFAULT.buffer(ChunkUtils.EMPTY_BIOME_DATA.length * bedrockSubChunkCount + 1); // Consists only of biome data and border blocks
-        try {
-            byteBuf.writeBytes(EMPTY_BIOME_DATA);
-            for (int i = 1; i < bedrockSubChunkCount; i++) {
-                byteBuf.writeByte((127 << 1) | 1);
-            }
-
-            byteBuf.writeByte(0); // Border blocks - Edu edition only
-
-            payload = new byte[byteBuf.readableBytes()];
-            byteBuf.readBytes(payload);
-
-            LevelChunkPacket data = new LevelChunkPacket();
-            data.setDimension(session.getBedrockDimension().bedrockId());
-            data.setChunkX(chunkX);
-            data.setChunkZ(chunkZ);
-            data.setSubChunksLength(0);
-            data.setData(Unpooled.wrappedBuffer(payload));
-            data.setCachingEnabled(false);
-            session.sendUpstreamPacket(data);
-        } finally {
-            byteBuf.release();
+        ByteBuf byteBuf = ByteBufAllocator.DEFAULT.ioBuffer(ChunkUtils.EMPTY_BIOME_DATA.length * bedrockSubChunkCount + 1); // Consists only of biome data and border blocks
+        byteBuf.writeBytes(EMPTY_BIOME_DATA);
+        for (int i = 1; i < bedrockSubChunkCount; i++) {
+            byteBuf.writeByte((127 << 1) | 1);
         }
 
+        byteBuf.writeByte(0); // Border blocks - Edu edition only
+
+        LevelChunkPacket data = new LevelChunkPacket();
+        data.setDimension(session.getBedrockDimension().bedrockId());
+        data.setChunkX(chunkX);
+        data.setChunkZ(chunkZ);
+        data.setSubChunksLength(0);
+        // The packet takes ownership of the buffer and releases it once encoded
+        data.setData(byteBuf);
+        data.setCachingEnabled(false);
+        session.sendUpstreamPacket(data);
+
         if (forceUpdate) {
             Vector3i pos = Vector3i.from(chunkX << 4, 80, chunkZ << 4);
             UpdateBlockPacket blockPacket = new UpdateBlockPacket();
@@ -55,12 +55,16 @@ public class DimensionUtils {
 
         Entity player = session.getPlayerEntity();
 
+        // Runs tasks that were waiting for chunks of the old dimension first
+        session.getChunkTranslationPipeline().clear();
         session.getChunkCache().clear();
         session.getEntityCache().removeAllEntities();
         session.getItemFrameCache().clear();
         session.getLodestoneCache().clear();
         session.getPistonCache().clear();
         session.getSkullCache().clear();
+        session.getSubChunkCache().clear();
+        session.getChunkBlobCache().clear();
 
         changeDimension(session, bedrockDimension);
 
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.util;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import jdk.jfr.consumer.RecordingStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.GeyserLogger;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Creates the executor for work that blocks, such as web requests. On Java 21 and newer this can start a virtual
+ * thread per task, so a burst of requests doesn't queue behind a few platform threads.
+ */
+public final class VirtualThreads {
+    /**
+     * How many platform threads blocking work is limited to without virtual threads.
+     */
+    private static final int PLATFORM_THREADS = 14;
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    /**
+     * How long a virtual thread has to hold on to its carrier thread before it's counted. Same as Java's default.
+     */
+    private static final Duration PINNED_THRESHOLD = Duration.ofMillis(20);
+
+    private static final LongAdder PINNED = new LongAdder();
+    private static final LongAdder PINNED_NANOS = new LongAdder();
+
+    private static volatile boolean active;
+    private static @Nullable AutoCloseable pinnedMonitor;
+
+    /**
+     * @param virtual whether to try to use virtual threads
+     * @return a virtual thread per task executor, or a fixed pool of platform threads if virtual threads are
+     * disabled or unavailable
+     */
+    public static ExecutorService newBlockingExecutor(boolean virtual, GeyserLogger logger) {
+        if (virtual) {
+            ExecutorService executor = newVirtualThreadExecutor();
+            active = executor != null;
+            if (executor != null) {
+                startPinnedMonitor(logger);
+                logger.debug("Using virtual threads for blocking tasks");
+                return executor;
+            }
+            logger.warning("Virtual threads require Java 21 or newer; using platform threads for blocking tasks instead.");
+        }
+        active = false;
+        return Executors.newFixedThreadPool(PLATFORM_THREADS, new DefaultThreadFactory("Geyser Blocking Thread", true));
+    }
+
+    private static @Nullable ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Compiled against Java 17, where neither method exists
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "Geyser Virtual Thread-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Also thrown on Java 19 and 20 if preview features are disabled
+            return null;
+        }
+    }
+
+    private static synchronized void startPinnedMonitor(GeyserLogger logger) {
+        if (pinnedMonitor != null) {
+            return;
+        }
+        try {
+            pinnedMonitor = PinnedMonitor.start();
+        } catch (Throwable t) {
+            // The jdk.jfr module isn't part of every runtime
+            logger.debug("Unable to count pinned virtual threads: " + t);
+        }
+    }
+
+    public static synchronized void shutdown() {
+        if (pinnedMonitor != null) {
+            try {
+                pinnedMonitor.close();
+            } catch (Exception ignored) {
+            }
+            pinnedMonitor = null;
+        }
+    }
+
+    /**
+     * @return whether blocking tasks currently run on virtual threads
+     */
+    public static boolean isActive() {
+        return active;
+    }
+
+    /**
+     * @return how often a virtual thread blocked its carrier thread for longer than the threshold
+     */
+    public static long pinned() {
+        return PINNED.sum();
+    }
+
+    /**
+     * @return how long virtual threads blocked their carrier threads in total, in milliseconds
+     */
+    public static long pinnedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(PINNED_NANOS.sum());
+    }
+
+    /**
+     * Separate, so the jdk.jfr classes are only loaded when virtual threads are used.
+     */
+    private static final class PinnedMonitor {
+        static AutoCloseable start() {
+            RecordingStream stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(PINNED_THRESHOLD);
+            stream.onEvent(PINNED_EVENT, event -> {
+                PINNED.increment();
+                PINNED_NANOS.add(event.getDuration().toNanos());
+            });
+            stream.startAsync();
+            return stream;
+        }
+    }
+
+    private VirtualThreads() {
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.session.GeyserSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChunkTranslationPipelineTest {
+
+    @Test
+    public void testClearRunsQueuedTasks() {
+        List<Runnable> work = new ArrayList<>();
+        GeyserSession session = session(work);
+
+        ChunkTranslationPipeline pipeline = new ChunkTranslationPipeline(session);
+        List<String> completed = new ArrayList<>();
+        pipeline.submit(() -> "chunk", completed::add);
+        pipeline.runInOrder(() -> completed.add("batch finished"));
+        pipeline.submit(() -> "second chunk", completed::add);
+        pipeline.runInOrder(() -> completed.add("block update"));
+
+        Assertions.assertEquals(2, work.size());
+        Assertions.assertTrue(completed.isEmpty());
+        Assertions.assertFalse(pipeline.isIdle());
+
+        pipeline.clear();
+        Assertions.assertEquals(List.of("batch finished", "block update"), completed);
+        Assertions.assertTrue(pipeline.isIdle());
+
+        // Work that finishes after clearing is not sent anymore
+        work.forEach(Runnable::run);
+        Assertions.assertEquals(List.of("batch finished", "block update"), completed);
+    }
+
+    @Test
+    public void testClearDiscardsTasksOfClosedSession() {
+        List<Runnable> work = new ArrayList<>();
+        GeyserSession session = session(work);
+        when(session.isClosed()).thenReturn(true);
+
+        ChunkTranslationPipeline pipeline = new ChunkTranslationPipeline(session);
+        List<String> completed = new ArrayList<>();
+        pipeline.submit(() -> "chunk", completed::add);
+        pipeline.runInOrder(() -> completed.add("batch finished"));
+
+        pipeline.clear();
+        Assertions.assertTrue(completed.isEmpty());
+        Assertions.assertTrue(pipeline.isIdle());
+    }
+
+    /**
+     * @param work collects the chunk work instead of running it, so it stays pending
+     */
+    private static GeyserSession session(List<Runnable> work) {
+        ExecutorService executor = mock(ExecutorService.class);
+        doAnswer(invocation -> work.add(invocation.getArgument(0))).when(executor).execute(any());
+        GeyserImpl geyser = mock(GeyserImpl.class);
+        when(geyser.getChunkTranslationExecutor()).thenReturn(executor);
+        GeyserSession session = mock(GeyserSession.class);
+        when(session.getGeyser()).thenReturn(geyser);
+        return session;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+public class AddressPrefixTest {
+
+    @Test
+    public void testIpv4() throws UnknownHostException {
+        Assertions.assertEquals("192.168.1.77/32", prefix("192.168.1.77", 32, 128));
+        Assertions.assertEquals("192.168.1.0/24", prefix("192.168.1.77", 24, 128));
+        Assertions.assertEquals("192.160.0.0/12", prefix("192.168.1.77", 12, 128));
+        Assertions.assertEquals("0.0.0.0/0", prefix("192.168.1.77", 0, 128));
+    }
+
+    @Test
+    public void testIpv6() throws UnknownHostException {
+        Assertions.assertEquals("2001:db8:1:2:3:4:5:6/128", prefix("2001:db8:1:2:3:4:5:6", 32, 128));
+        Assertions.assertEquals("2001:db8:1:2:3:4:0:0/96", prefix("2001:db8:1:2:3:4:5:6", 32, 96));
+        Assertions.assertEquals("2001:db8:1:2:0:0:0:0/64", prefix("2001:db8:1:2:3:4:5:6", 32, 64));
+        Assertions.assertEquals("2001:db8:1:0:0:0:0:0/48", prefix("2001:db8:1:2:3:4:5:6", 32, 48));
+        Assertions.assertEquals("2001:c00:0:0:0:0:0:0/23", prefix("2001:db8:1:2:3:4:5:6", 32, 23));
+    }
+
+    @Test
+    public void testSamePrefixSameKey() throws UnknownHostException {
+        long[] first = new long[2];
+        long[] second = new long[2];
+        AddressPrefix.write(InetAddress.getByName("10.0.0.1"), 24, 64, first);
+        AddressPrefix.write(InetAddress.getByName("10.0.0.254"), 24, 64, second);
+        Assertions.assertArrayEquals(first, second);
+
+        AddressPrefix.write(InetAddress.getByName("10.0.1.1"), 24, 64, second);
+        Assertions.assertNotEquals(first[1], second[1]);
+
+        AddressPrefix.write(InetAddress.getByName("2001:db8::1"), 24, 64, first);
+        AddressPrefix.write(InetAddress.getByName("2001:db8::ffff:1"), 24, 64, second);
+        Assertions.assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void testIpv4DoesNotCollideWithIpv6() throws UnknownHostException {
+        long[] ipv4 = new long[2];
+        long[] ipv6 = new long[2];
+        AddressPrefix.write(InetAddress.getByName("0.0.0.1"), 32, 128, ipv4);
+        AddressPrefix.write(InetAddress.getByName("::1"), 32, 128, ipv6);
+        Assertions.assertNotEquals(ipv4[1], ipv6[1]);
+    }
+
+    private static String prefix(String address, int ipv4Prefix, int ipv6Prefix) throws UnknownHostException {
+        long[] key = new long[2];
+        AddressPrefix.write(InetAddress.getByName(address), ipv4Prefix, ipv6Prefix, key);
+        return AddressPrefix.toString(key[0], key[1], ipv4Prefix, ipv6Prefix);
+    }
+}
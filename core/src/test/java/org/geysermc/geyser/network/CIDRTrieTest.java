@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CIDRTrieTest {
+
+    @Test
+    public void testMatches() throws Exception {
+        CIDRTrie trie = CIDRTrie.compile(List.of("10.0.0.0/8", "192.168.1.7", "172.16.0.0/12", "2001:db8::/32", "::1"));
+
+        Assertions.assertTrue(trie.matches(InetAddress.getByName("10.255.3.4")));
+        Assertions.assertTrue(trie.matches(InetAddress.getByName("192.168.1.7")));
+        Assertions.assertTrue(trie.matches(InetAddress.getByName("172.31.255.255")));
+        Assertions.assertTrue(trie.matches(InetAddress.getByName("2001:db8:1234::1")));
+        Assertions.assertTrue(trie.matches(InetAddress.getByName("::1")));
+
+        Assertions.assertFalse(trie.matches(InetAddress.getByName("11.0.0.1")));
+        Assertions.assertFalse(trie.matches(InetAddress.getByName("192.168.1.8")));
+        Assertions.assertFalse(trie.matches(InetAddress.getByName("172.32.0.0")));
+        Assertions.assertFalse(trie.matches(InetAddress.getByName("2001:db9::1")));
+        Assertions.assertFalse(trie.matches(InetAddress.getByName("::2")));
+    }
+
+    @Test
+    public void testManyRanges() throws Exception {
+        // Enough ranges to grow the trie several times
+        List<String> ranges = new ArrayList<>();
+        for (int i = 0; i < 4096; i++) {
+            ranges.add("100." + (i >> 4) + "." + ((i & 15) * 16) + ".0/24");
+        }
+        CIDRTrie trie = CIDRTrie.compile(ranges);
+
+        Assertions.assertTrue(trie.matches(InetAddress.getByName("100.255.240.9")));
+        Assertions.assertTrue(trie.matches(InetAddress.getByName("100.0.0.1")));
+        Assertions.assertFalse(trie.matches(InetAddress.getByName("100.0.1.1")));
+        Assertions.assertFalse(trie.matches(InetAddress.getByName("101.0.0.1")));
+    }
+
+    @Test
+    public void testInvalidRange() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CIDRTrie.compile(List.of("10.0.0.0/33")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CIDRTrie.compile(List.of("10.0.0.0/a")));
+    }
+}
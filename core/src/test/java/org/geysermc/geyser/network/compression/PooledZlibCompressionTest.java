@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.DecoderException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PooledZlibCompressionTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ChannelHandlerContext ctx = context();
+        Random random = new Random(0);
+        PooledZlibCompression compression = new PooledZlibCompression(Deflater.DEFAULT_COMPRESSION);
+        for (int level = -1; level <= 9; level++) {
+            compression.setLevel(level);
+            Assertions.assertEquals(level, compression.getLevel());
+            for (int size : new int[] {0, 1, 511, 70_000}) {
+                byte[] data = new byte[size];
+                for (int i = 0; i < size; i++) {
+                    data[i] = (byte) random.nextInt(16);
+                }
+
+                ByteBuf compressed = compression.encode(ctx, Unpooled.wrappedBuffer(data));
+                byte[] compressedBytes = ByteBufUtil.getBytes(compressed);
+
+                ByteBuf decompressed = compression.decode(ctx, compressed);
+                Assertions.assertArrayEquals(data, ByteBufUtil.getBytes(decompressed));
+                compressed.release();
+                decompressed.release();
+
+                // Must be readable by a regular raw inflater, as Bedrock clients use
+                Inflater inflater = new Inflater(true);
+                inflater.setInput(compressedBytes);
+                byte[] inflated = new byte[size];
+                Assertions.assertEquals(size, inflater.inflate(inflated));
+                Assertions.assertArrayEquals(data, inflated);
+                inflater.end();
+            }
+        }
+    }
+
+    @Test
+    public void testDecompressionLimit() throws Exception {
+        ChannelHandlerContext ctx = context();
+        PooledZlibCompression compression = new PooledZlibCompression(9);
+        ByteBuf compressed = compression.encode(ctx, Unpooled.wrappedBuffer(new byte[PooledZlibCompression.MAX_DECOMPRESSED_BYTES + 1]));
+        Assertions.assertThrows(DecoderException.class, () -> compression.decode(ctx, compressed));
+        compressed.release();
+    }
+
+    @Test
+    public void testTruncatedInput() throws Exception {
+        ChannelHandlerContext ctx = context();
+        PooledZlibCompression compression = new PooledZlibCompression(6);
+        byte[] data = new byte[4096];
+        new Random(0).nextBytes(data);
+        ByteBuf compressed = compression.encode(ctx, Unpooled.wrappedBuffer(data));
+        ByteBuf truncated = compressed.slice(0, compressed.readableBytes() / 2);
+        Assertions.assertThrows(DecoderException.class, () -> compression.decode(ctx, truncated));
+        compressed.release();
+    }
+
+    private static ChannelHandlerContext context() {
+        ChannelHandlerContext ctx = mock(ChannelHandlerContext.class);
+        when(ctx.alloc()).thenReturn(UnpooledByteBufAllocator.DEFAULT);
+        return ctx;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.GeyserLogger;
+import org.geysermc.geyser.network.netty.handler.PassthroughHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+public class GeyserInjectorTest {
+    private final BlockingQueue<Channel> acceptedChannels = new LinkedBlockingQueue<>();
+    private DefaultEventLoopGroup group;
+    private Channel serverChannel;
+    private volatile boolean frameHandlers = true;
+
+    @BeforeEach
+    public void setUp() {
+        System.setProperty(LocalSession.SKIP_FRAMING_PROPERTY, "true");
+        LocalSession.skipFraming(false);
+
+        group = new DefaultEventLoopGroup(1);
+        serverChannel = new ServerBootstrap()
+                .group(group)
+                .channel(LocalServerChannelWrapper.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        if (frameHandlers) {
+                            ch.pipeline().addLast("splitter", new ChannelInboundHandlerAdapter());
+                            ch.pipeline().addLast("prepender", new ChannelOutboundHandlerAdapter());
+                        }
+                        ch.pipeline().addLast("packet_handler", new ChannelInboundHandlerAdapter());
+                        acceptedChannels.add(ch);
+                    }
+                })
+                .bind(new LocalAddress("geyser-injector-test"))
+                .syncUninterruptibly()
+                .channel();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        serverChannel.close().syncUninterruptibly();
+        group.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS).syncUninterruptibly();
+        System.clearProperty(LocalSession.SKIP_FRAMING_PROPERTY);
+        LocalSession.skipFraming(false);
+    }
+
+    @Test
+    public void testFramedThenUnframed() throws InterruptedException {
+        Channel framed = connect(true);
+        GeyserInjector.matchFraming(framed);
+        // The first session still sends a length prefix, so the server has to keep reading it
+        Assertions.assertTrue(LocalSession.isSkippingFraming());
+        Assertions.assertFalse(framed.pipeline().get("splitter") instanceof PassthroughHandler);
+        Assertions.assertFalse(framed.pipeline().get("prepender") instanceof PassthroughHandler);
+
+        Channel unframed = connect(false);
+        GeyserInjector.matchFraming(unframed);
+        Assertions.assertTrue(LocalSession.isSkippingFraming());
+        Assertions.assertSame(PassthroughHandler.INSTANCE, unframed.pipeline().get("splitter"));
+        Assertions.assertSame(PassthroughHandler.INSTANCE, unframed.pipeline().get("prepender"));
+        Assertions.assertEquals(unframed.pipeline().names().indexOf("packet_handler") - 2, unframed.pipeline().names().indexOf("splitter"));
+    }
+
+    @Test
+    public void testUnframedThenUnframed() throws InterruptedException {
+        LocalSession.skipFraming(true);
+        for (int i = 0; i < 2; i++) {
+            Channel unframed = connect(false);
+            GeyserInjector.matchFraming(unframed);
+            Assertions.assertTrue(LocalSession.isSkippingFraming());
+            Assertions.assertTrue(unframed.isOpen());
+            Assertions.assertSame(PassthroughHandler.INSTANCE, unframed.pipeline().get("splitter"));
+            Assertions.assertSame(PassthroughHandler.INSTANCE, unframed.pipeline().get("prepender"));
+        }
+    }
+
+    @Test
+    public void testMissingFrameHandlers() throws InterruptedException {
+        frameHandlers = false;
+
+        Channel framed = connect(true);
+        GeyserInjector.matchFraming(framed);
+        Assertions.assertFalse(LocalSession.isSkippingFraming());
+        Assertions.assertTrue(framed.isOpen());
+
+        // A plugin removed the handlers after an earlier connection had them
+        LocalSession.skipFraming(true);
+        Channel unframed = connect(false);
+        GeyserImpl geyser = mock(GeyserImpl.class);
+        when(geyser.getLogger()).thenReturn(mock(GeyserLogger.class));
+        try (MockedStatic<GeyserImpl> geyserImpl = mockStatic(GeyserImpl.class)) {
+            geyserImpl.when(GeyserImpl::getInstance).thenReturn(geyser);
+            GeyserInjector.matchFraming(unframed);
+        }
+        Assertions.assertFalse(LocalSession.isSkippingFraming());
+        Assertions.assertTrue(unframed.closeFuture().await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSkippingFramingIsOptIn() throws InterruptedException {
+        System.clearProperty(LocalSession.SKIP_FRAMING_PROPERTY);
+
+        Channel framed = connect(true);
+        GeyserInjector.matchFraming(framed);
+        Assertions.assertFalse(LocalSession.isSkippingFraming());
+        Assertions.assertFalse(framed.pipeline().get("splitter") instanceof PassthroughHandler);
+    }
+
+    /**
+     * @return the server's end of the new connection
+     */
+    private Channel connect(boolean framed) throws InterruptedException {
+        new Bootstrap()
+                .group(group)
+                .channel(LocalChannelWithRemoteAddress.class)
+                .handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ((LocalChannelWithRemoteAddress) ch).framed(framed);
+                    }
+                })
+                .connect(serverChannel.localAddress())
+                .syncUninterruptibly();
+
+        Channel channel = acceptedChannels.poll(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(channel, "The server did not accept the connection");
+        return channel;
+    }
+}
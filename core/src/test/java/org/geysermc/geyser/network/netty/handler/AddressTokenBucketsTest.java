@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network.netty.handler;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class AddressTokenBucketsTest {
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long START = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testCapacity() {
+        AddressTokenBuckets buckets = new AddressTokenBuckets(WINDOW);
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(buckets.tryAcquire(0, 1, 10, START));
+        }
+        Assertions.assertFalse(buckets.tryAcquire(0, 1, 10, START));
+
+        // Other prefixes have their own bucket
+        Assertions.assertTrue(buckets.tryAcquire(0, 2, 10, START));
+    }
+
+    @Test
+    public void testRefill() {
+        AddressTokenBuckets buckets = new AddressTokenBuckets(WINDOW);
+        for (int i = 0; i < 10; i++) {
+            buckets.tryAcquire(0, 1, 10, START);
+        }
+
+        // Half a window refills half of the bucket
+        long now = START + WINDOW / 2;
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(buckets.tryAcquire(0, 1, 10, now));
+        }
+        Assertions.assertFalse(buckets.tryAcquire(0, 1, 10, now));
+
+        // A long pause doesn't refill more than the limit
+        now += TimeUnit.SECONDS.toNanos(30);
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(buckets.tryAcquire(0, 1, 10, now));
+        }
+        Assertions.assertFalse(buckets.tryAcquire(0, 1, 10, now));
+    }
+
+    @Test
+    public void testRejectedPackets() {
+        AddressTokenBuckets buckets = new AddressTokenBuckets(WINDOW);
+        for (int i = 0; i < 15; i++) {
+            buckets.tryAcquire(0, 1, 10, START);
+        }
+        buckets.tryAcquire(0, 2, 10, START);
+
+        Map<Long, Long> rejected = new HashMap<>();
+        buckets.forEachRejected((high, low, count) -> rejected.put(low, count));
+        Assertions.assertEquals(Map.of(1L, 5L), rejected);
+    }
+
+    @Test
+    public void testManyPrefixes() {
+        AddressTokenBuckets buckets = new AddressTokenBuckets(WINDOW);
+        for (long low = 0; low < 10_000; low++) {
+            Assertions.assertTrue(buckets.tryAcquire(0, low, 1, START));
+        }
+        // Every prefix kept its own bucket while the table grew
+        for (long low = 0; low < 10_000; low++) {
+            Assertions.assertFalse(buckets.tryAcquire(0, low, 1, START));
+        }
+    }
+}
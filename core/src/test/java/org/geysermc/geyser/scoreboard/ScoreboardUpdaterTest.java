@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.scoreboard;
+
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.scoreboard.ScoreboardUpdater.ScoreboardSession;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.session.cache.WorldCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.geysermc.geyser.scoreboard.ScoreboardUpdater.SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ScoreboardUpdaterTest {
+    private static final int FIRST_THRESHOLD = 20;
+
+    private final List<Runnable> scheduledFlushes = new ArrayList<>();
+    private final List<Long> scheduledDelays = new ArrayList<>();
+    private final List<ScheduledFuture<?>> scheduledFutures = new ArrayList<>();
+    private final Scoreboard scoreboard = mock(Scoreboard.class);
+
+    @Test
+    public void testBelowFirstThresholdUpdatesRightAway() {
+        ScoreboardSession scoreboardSession = scoreboardSession();
+        for (int i = 0; i < 3; i++) {
+            scoreboardSession.onUpdate(FIRST_THRESHOLD - 1);
+        }
+
+        verify(scoreboard, times(3)).onUpdate();
+        Assertions.assertTrue(scheduledFlushes.isEmpty());
+    }
+
+    @Test
+    public void testFirstThresholdThrottlesUpdates() {
+        ScoreboardSession scoreboardSession = scoreboardSession();
+        for (int i = 0; i < 5; i++) {
+            scoreboardSession.onUpdate(FIRST_THRESHOLD);
+        }
+        // All changes are sent in one flush, which can run right away since nothing was sent before
+        verify(scoreboard, times(0)).onUpdate();
+        Assertions.assertEquals(List.of(0L), scheduledDelays);
+        runNextFlush();
+        verify(scoreboard, times(1)).onUpdate();
+
+        for (int i = 0; i < 5; i++) {
+            scoreboardSession.onUpdate(FIRST_THRESHOLD);
+        }
+        Assertions.assertEquals(2, scheduledDelays.size());
+        long delay = scheduledDelays.get(1);
+        Assertions.assertTrue(delay > 0 && delay <= 250, "Delay was " + delay);
+        runNextFlush();
+        verify(scoreboard, times(2)).onUpdate();
+    }
+
+    @Test
+    public void testSecondThresholdThrottlesMore() {
+        ScoreboardSession scoreboardSession = scoreboardSession();
+        scoreboardSession.onUpdate(SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD);
+        runNextFlush();
+        verify(scoreboard, times(1)).onUpdate();
+
+        for (int i = 0; i < 5; i++) {
+            scoreboardSession.onUpdate(SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD);
+        }
+        Assertions.assertEquals(2, scheduledDelays.size());
+        long delay = scheduledDelays.get(1);
+        Assertions.assertTrue(delay > 250 && delay <= 1000, "Delay was " + delay);
+        runNextFlush();
+        verify(scoreboard, times(2)).onUpdate();
+    }
+
+    @Test
+    public void testFinalFlushAfterRateDrops() {
+        ScoreboardSession scoreboardSession = scoreboardSession();
+        scoreboardSession.onUpdate(SECOND_SCORE_PACKETS_PER_SECOND_THRESHOLD);
+        runNextFlush();
+        scoreboardSession.onUpdate(FIRST_THRESHOLD);
+
+        // No more packets arrive, but the last changes must still be sent
+        runNextFlush();
+        verify(scoreboard, times(2)).onUpdate();
+        Assertions.assertTrue(scheduledFlushes.isEmpty());
+
+        // Once the rate drops below the first threshold, changes are sent right away and a pending flush does nothing
+        scoreboardSession.onUpdate(FIRST_THRESHOLD);
+        scoreboardSession.onUpdate(FIRST_THRESHOLD - 1);
+        verify(scoreboard, times(3)).onUpdate();
+        runNextFlush();
+        verify(scoreboard, times(3)).onUpdate();
+    }
+
+    @Test
+    public void testCloseCancelsFlush() {
+        ScoreboardSession scoreboardSession = scoreboardSession();
+        scoreboardSession.onUpdate(FIRST_THRESHOLD);
+        scoreboardSession.close();
+
+        verify(scheduledFutures.get(0)).cancel(false);
+        Assertions.assertNull(scoreboardSession.getFlushTask());
+        // Even if it was already about to run
+        runNextFlush();
+        verify(scoreboard, times(0)).onUpdate();
+    }
+
+    private ScoreboardSession scoreboardSession() {
+        GeyserConfiguration config = mock(GeyserConfiguration.class);
+        when(config.getScoreboardPacketThreshold()).thenReturn(FIRST_THRESHOLD);
+        GeyserImpl geyser = mock(GeyserImpl.class);
+        when(geyser.getConfig()).thenReturn(config);
+
+        GeyserSession session = mock(GeyserSession.class);
+        when(session.getGeyser()).thenReturn(geyser);
+        WorldCache worldCache = mock(WorldCache.class);
+        when(session.getWorldCache()).thenReturn(worldCache);
+        when(worldCache.getScoreboard()).thenReturn(scoreboard);
+        doAnswer(invocation -> {
+            scheduledFlushes.add(invocation.getArgument(0));
+            scheduledDelays.add(invocation.getArgument(1));
+            ScheduledFuture<?> future = mock(ScheduledFuture.class);
+            scheduledFutures.add(future);
+            return future;
+        }).when(session).scheduleInEventLoop(any(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        return new ScoreboardSession(session);
+    }
+
+    private void runNextFlush() {
+        Assertions.assertFalse(scheduledFlushes.isEmpty(), "No flush was scheduled");
+        scheduledFlushes.remove(0).run();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class ConnectedAddressesTest {
+
+    @Test
+    public void testIncrementAndDecrement() {
+        ConnectedAddresses addresses = new ConnectedAddresses();
+        Assertions.assertEquals(0, addresses.get(0, 1));
+
+        addresses.increment(0, 1);
+        addresses.increment(0, 1);
+        addresses.increment(1, 0);
+        Assertions.assertEquals(2, addresses.get(0, 1));
+        Assertions.assertEquals(1, addresses.get(1, 0));
+
+        addresses.decrement(0, 1);
+        Assertions.assertEquals(1, addresses.get(0, 1));
+        addresses.decrement(0, 1);
+        Assertions.assertEquals(0, addresses.get(0, 1));
+        Assertions.assertEquals(1, addresses.get(1, 0));
+
+        // Keys that aren't counted are not added
+        addresses.decrement(2, 2);
+        Assertions.assertEquals(0, addresses.get(2, 2));
+        addresses.increment(2, 2);
+        Assertions.assertEquals(1, addresses.get(2, 2));
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        // Far more keys than the initial capacity of every shard, so many of them collide and are shifted back on removal
+        ConnectedAddresses addresses = new ConnectedAddresses();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 200_000; i++) {
+            long low = random.nextInt(2048);
+            if (random.nextInt(3) == 0) {
+                addresses.decrement(0, low);
+                expected.computeIfPresent(low, (key, count) -> count == 1 ? null : count - 1);
+            } else {
+                addresses.increment(0, low);
+                expected.merge(low, 1, Integer::sum);
+            }
+
+            if (i % 1000 == 0) {
+                for (long key = 0; key < 2048; key++) {
+                    Assertions.assertEquals((int) expected.getOrDefault(key, 0), addresses.get(0, key), "count of " + key);
+                }
+            }
+        }
+
+        // Remove everything again
+        expected.forEach((key, count) -> {
+            for (int i = 0; i < count; i++) {
+                addresses.decrement(0, key);
+            }
+        });
+        for (long key = 0; key < 2048; key++) {
+            Assertions.assertEquals(0, addresses.get(0, key));
+        }
+    }
+
+    @Test
+    public void testConcurrentReads() throws InterruptedException {
+        ConnectedAddresses addresses = new ConnectedAddresses();
+        // Always connected, so reads must never miss them while other keys are added and removed
+        for (long key = 0; key < 64; key++) {
+            addresses.increment(1, key);
+        }
+
+        Thread writer = new Thread(() -> {
+            Random random = new Random(1);
+            for (int i = 0; i < 100_000; i++) {
+                long key = random.nextInt(4096);
+                addresses.increment(0, key);
+                addresses.decrement(0, key);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            for (long key = 0; key < 64; key++) {
+                Assertions.assertEquals(1, addresses.get(1, key));
+            }
+        }
+        writer.join();
+    }
+}
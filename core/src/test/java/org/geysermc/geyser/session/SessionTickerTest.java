@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SessionTickerTest {
+    private static final long PERIOD = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * When the event loop was asked to run the ticker
+     */
+    private final List<Long> wakeups = new ArrayList<>();
+    private long now = 0;
+
+    @Test
+    public void testLaterRoundReinsertion() {
+        SessionTicker ticker = ticker(false);
+        int[] slow = new int[1];
+        int[] fast = new int[1];
+        // Longer than the wheel, so it shares its slot with the other task for a few rounds
+        ticker.add(new SessionTicker.Handle(() -> slow[0]++, millis(200)), now);
+        ticker.add(new SessionTicker.Handle(() -> fast[0]++, millis(20)), now);
+
+        Assertions.assertEquals(millis(20), lastWakeup());
+        advanceToLastWakeup(ticker);
+        Assertions.assertEquals(0, slow[0]);
+        Assertions.assertEquals(1, fast[0]);
+
+        while (lastWakeup() < millis(200)) {
+            advanceToLastWakeup(ticker);
+        }
+        Assertions.assertEquals(0, slow[0]);
+        advanceToLastWakeup(ticker);
+        Assertions.assertEquals(1, slow[0]);
+        Assertions.assertEquals(10, fast[0]);
+        // Only woken up when a task is due, including the wakeup for the first task before the second was added
+        Assertions.assertEquals(12, wakeups.size());
+    }
+
+    @Test
+    public void testCancelWhileTicking() {
+        SessionTicker ticker = ticker(false);
+        List<String> runs = new ArrayList<>();
+        SessionTicker.Handle[] handles = new SessionTicker.Handle[2];
+        handles[0] = new SessionTicker.Handle(() -> {
+            runs.add("first");
+            handles[1].cancel();
+        }, PERIOD);
+        handles[1] = new SessionTicker.Handle(() -> runs.add("second"), PERIOD);
+        ticker.add(handles[0], now);
+        ticker.add(handles[1], now);
+        Assertions.assertEquals(2, ticker.size());
+
+        advanceToLastWakeup(ticker);
+        Assertions.assertEquals(List.of("first"), runs);
+        Assertions.assertEquals(1, ticker.size());
+
+        // A task cancelling itself stops catching up on missed ticks
+        handles[0].cancel();
+        int[] selfRuns = new int[1];
+        SessionTicker.Handle[] self = new SessionTicker.Handle[1];
+        self[0] = new SessionTicker.Handle(() -> {
+            if (++selfRuns[0] == 2) {
+                self[0].cancel();
+            }
+        }, PERIOD);
+        ticker.add(self[0], now);
+
+        int wakeupCount = wakeups.size();
+        now += PERIOD * 4;
+        ticker.advance(now);
+        Assertions.assertEquals(2, selfRuns[0]);
+        Assertions.assertEquals(0, ticker.size());
+        // Nothing left to wake up for
+        Assertions.assertEquals(wakeupCount, wakeups.size());
+    }
+
+    @Test
+    public void testCatchUpAndDropMissedTicks() {
+        SessionTicker ticker = ticker(false);
+        int[] runs = new int[1];
+        SessionTicker.Handle handle = new SessionTicker.Handle(() -> runs[0]++, PERIOD);
+        ticker.add(handle, now);
+        Assertions.assertEquals(PERIOD, handle.deadline());
+
+        long overruns = SessionTicker.overruns();
+        // Three ticks late: the missed ticks are run back-to-back
+        now = PERIOD * 4;
+        ticker.advance(now);
+        Assertions.assertEquals(4, runs[0]);
+        Assertions.assertEquals(PERIOD * 5, handle.deadline());
+
+        // Too far behind: runs a few ticks, and drops the rest
+        now = PERIOD * 20;
+        ticker.advance(now);
+        Assertions.assertEquals(4 + SessionTicker.MAX_CATCH_UP_TICKS, runs[0]);
+        Assertions.assertEquals(now + PERIOD, handle.deadline());
+        Assertions.assertEquals(overruns + 2, SessionTicker.overruns());
+    }
+
+    @Test
+    public void testStaggeredDeadlines() {
+        SessionTicker ticker = ticker(true);
+        now = millis(10);
+        SessionTicker.Handle first = new SessionTicker.Handle(() -> { }, PERIOD);
+        SessionTicker.Handle second = new SessionTicker.Handle(() -> { }, PERIOD);
+        SessionTicker.Handle third = new SessionTicker.Handle(() -> { }, PERIOD);
+        ticker.add(first, now);
+        ticker.add(second, now);
+        ticker.add(third, now);
+
+        // Spread over the period by the golden ratio
+        Assertions.assertEquals(now + PERIOD, first.deadline());
+        Assertions.assertEquals(now + PERIOD + 30_901_699, second.deadline());
+        Assertions.assertEquals(now + PERIOD + 11_803_398, third.deadline());
+    }
+
+    @Test
+    public void testAlignedDeadlines() {
+        SessionTicker ticker = ticker(false);
+        now = millis(12);
+        SessionTicker.Handle first = new SessionTicker.Handle(() -> { }, PERIOD);
+        ticker.add(first, now);
+        now = millis(37);
+        SessionTicker.Handle second = new SessionTicker.Handle(() -> { }, PERIOD);
+        ticker.add(second, now);
+
+        // Rounded up to the next multiple of the period, at least one period from now
+        Assertions.assertEquals(millis(100), first.deadline());
+        Assertions.assertEquals(millis(100), second.deadline());
+        Assertions.assertEquals(List.of(millis(100)), wakeups);
+    }
+
+    private SessionTicker ticker(boolean stagger) {
+        EventLoop eventLoop = mock(EventLoop.class);
+        when(eventLoop.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+            wakeups.add(now + invocation.<Long>getArgument(1));
+            return mock(ScheduledFuture.class);
+        });
+        return new SessionTicker(eventLoop, stagger, 0);
+    }
+
+    private void advanceToLastWakeup(SessionTicker ticker) {
+        now = lastWakeup();
+        ticker.advance(now);
+    }
+
+    private long lastWakeup() {
+        return wakeups.get(wakeups.size() - 1);
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2019-2025 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session.cache;
+
+import io.netty.buffer.ByteBufUtil;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheBlobStatusPacket;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheMissResponsePacket;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.GeyserLogger;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.session.GeyserSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChunkBlobCacheTest {
+    private final List<BedrockPacket> sent = new ArrayList<>();
+
+    @Test
+    public void testDuplicateBlobsAreCountedPerReference() {
+        ChunkBlobCache cache = cache();
+        long id = cache.addBlob(new byte[] {1, 2, 3});
+        // Referenced by a second chunk before the client responded
+        Assertions.assertEquals(id, cache.addBlob(new byte[] {1, 2, 3}));
+        Assertions.assertEquals(1, cache.pendingBlobCount());
+
+        ClientCacheBlobStatusPacket status = new ClientCacheBlobStatusPacket();
+        status.getAcks().add(id);
+        cache.onBlobStatus(status);
+        Assertions.assertEquals(1, cache.pendingBlobCount());
+        Assertions.assertEquals(1, cache.getCachedBlobs());
+        Assertions.assertEquals(3, cache.getSavedBytes());
+
+        // The second chunk still gets the blob
+        status = new ClientCacheBlobStatusPacket();
+        status.getNaks().add(id);
+        cache.onBlobStatus(status);
+        Assertions.assertEquals(0, cache.pendingBlobCount());
+        Assertions.assertEquals(1, sent.size());
+        ClientCacheMissResponsePacket response = (ClientCacheMissResponsePacket) sent.get(0);
+        Assertions.assertArrayEquals(new byte[] {1, 2, 3}, ByteBufUtil.getBytes(response.getBlobs().get(id)));
+    }
+
+    @Test
+    public void testMissingBlobsAreSent() {
+        ChunkBlobCache cache = cache();
+        long first = cache.addBlob(new byte[] {1});
+        long second = cache.addBlob(new byte[] {2, 2});
+
+        ClientCacheBlobStatusPacket status = new ClientCacheBlobStatusPacket();
+        status.getNaks().add(first);
+        status.getNaks().add(second);
+        cache.onBlobStatus(status);
+
+        Assertions.assertEquals(0, cache.pendingBlobCount());
+        Assertions.assertEquals(2, cache.getMissedBlobs());
+        Assertions.assertEquals(1, sent.size());
+        ClientCacheMissResponsePacket response = (ClientCacheMissResponsePacket) sent.get(0);
+        Assertions.assertArrayEquals(new byte[] {1}, ByteBufUtil.getBytes(response.getBlobs().get(first)));
+        Assertions.assertArrayEquals(new byte[] {2, 2}, ByteBufUtil.getBytes(response.getBlobs().get(second)));
+
+        // Asked for again after every reference was answered; still sent from the recent blobs
+        status = new ClientCacheBlobStatusPacket();
+        status.getNaks().add(first);
+        cache.onBlobStatus(status);
+        Assertions.assertEquals(2, sent.size());
+        response = (ClientCacheMissResponsePacket) sent.get(1);
+        Assertions.assertArrayEquals(new byte[] {1}, ByteBufUtil.getBytes(response.getBlobs().get(first)));
+
+        // Never sent at all
+        status = new ClientCacheBlobStatusPacket();
+        status.getNaks().add(first + second);
+        cache.onBlobStatus(status);
+        Assertions.assertEquals(2, sent.size());
+    }
+
+    @Test
+    public void testClear() {
+        ChunkBlobCache cache = cache();
+        Assertions.assertTrue(cache.isActive());
+        for (int i = 0; i < 20_000; i++) {
+            cache.addBlob(new byte[] {(byte) i, (byte) (i >> 8)});
+        }
+        // The client never responded
+        Assertions.assertFalse(cache.isActive());
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.pendingBlobCount());
+        Assertions.assertTrue(cache.isActive());
+    }
+
+    private ChunkBlobCache cache() {
+        GeyserConfiguration config = mock(GeyserConfiguration.class);
+        when(config.isEnableClientBlobCache()).thenReturn(true);
+        GeyserImpl geyser = mock(GeyserImpl.class);
+        when(geyser.getConfig()).thenReturn(config);
+        when(geyser.getLogger()).thenReturn(mock(GeyserLogger.class));
+        GeyserSession session = mock(GeyserSession.class);
+        when(session.getGeyser()).thenReturn(geyser);
+        doAnswer(invocation -> sent.add(invocation.getArgument(0))).when(session).sendUpstreamPacket(any());
+
+        ChunkBlobCache cache = new ChunkBlobCache(session);
+        cache.setClientSupported(true);
+        return cache;
+    }
+}